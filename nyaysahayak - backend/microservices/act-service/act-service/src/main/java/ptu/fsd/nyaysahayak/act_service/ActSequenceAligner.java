@@ -0,0 +1,37 @@
+package ptu.fsd.nyaysahayak.act_service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// Moves acts_seq past the ids that were assigned while Acts used an IDENTITY column
+@Component
+public class ActSequenceAligner implements ApplicationRunner {
+
+	// Must match the allocationSize of the acts_seq generator on Act
+	private static final int ALLOCATION_SIZE = 50;
+
+	private static final Logger log = LoggerFactory.getLogger(ActSequenceAligner.class);
+
+	@Autowired
+	private JdbcTemplate jdbc;
+
+	@Override
+	public void run(ApplicationArguments args) {
+		try {
+			// Hibernate's pooled optimizer hands out (value - ALLOCATION_SIZE, value], so keep a full block of headroom
+			Long value = jdbc.queryForObject(
+					"select setval('acts_seq', greatest((select coalesce(max(id), 0) from acts) + " + ALLOCATION_SIZE
+							+ ", (select last_value from acts_seq)))",
+					Long.class);
+			log.info("acts_seq aligned at {}", value);
+		} catch (DataAccessException ex) {
+			log.warn("Could not align acts_seq with the Acts table", ex);
+		}
+	}
+}
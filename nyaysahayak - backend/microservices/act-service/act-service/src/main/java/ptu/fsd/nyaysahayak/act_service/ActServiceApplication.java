@@ -2,8 +2,10 @@ package ptu.fsd.nyaysahayak.act_service;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class ActServiceApplication {
 
 	public static void main(String[] args) {
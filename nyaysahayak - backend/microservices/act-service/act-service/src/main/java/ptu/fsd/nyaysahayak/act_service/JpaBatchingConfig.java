@@ -0,0 +1,20 @@
+package ptu.fsd.nyaysahayak.act_service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JpaBatchingConfig {
+
+	// JDBC batching for bulk writes; explicit spring.jpa.properties settings still take precedence
+	@Bean
+	public HibernatePropertiesCustomizer jdbcBatching(@Value("${acts.ingest.jdbc-batch-size:50}") int batchSize) {
+		return properties -> {
+			properties.putIfAbsent("hibernate.jdbc.batch_size", batchSize);
+			properties.putIfAbsent("hibernate.order_inserts", true);
+			properties.putIfAbsent("hibernate.order_updates", true);
+		};
+	}
+}
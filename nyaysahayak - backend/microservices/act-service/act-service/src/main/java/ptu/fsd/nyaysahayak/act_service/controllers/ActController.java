@@ -1,20 +1,49 @@
 package ptu.fsd.nyaysahayak.act_service.controllers;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import jakarta.servlet.http.HttpServletResponse;
+import ptu.fsd.nyaysahayak.act_service.dto.ActBatch;
+import ptu.fsd.nyaysahayak.act_service.dto.ActBatchRequest;
+import ptu.fsd.nyaysahayak.act_service.dto.ActFacets;
+import ptu.fsd.nyaysahayak.act_service.dto.ActFilter;
+import ptu.fsd.nyaysahayak.act_service.dto.ActFuzzyResults;
+import ptu.fsd.nyaysahayak.act_service.dto.ActIngestReport;
+import ptu.fsd.nyaysahayak.act_service.dto.ActPage;
+import ptu.fsd.nyaysahayak.act_service.dto.ActRelation;
+import ptu.fsd.nyaysahayak.act_service.dto.ActSearchResult;
+import ptu.fsd.nyaysahayak.act_service.dto.ActSuggestion;
+import ptu.fsd.nyaysahayak.act_service.dto.ActTagCount;
 import ptu.fsd.nyaysahayak.act_service.model.Act;
+import ptu.fsd.nyaysahayak.act_service.model.ActChange;
+import ptu.fsd.nyaysahayak.act_service.services.ActCatalogRevision;
+import ptu.fsd.nyaysahayak.act_service.services.ActExportService;
+import ptu.fsd.nyaysahayak.act_service.services.ActIngestService;
+import ptu.fsd.nyaysahayak.act_service.services.ActOutbox;
 import ptu.fsd.nyaysahayak.act_service.services.ActService;
 
 
@@ -23,19 +52,161 @@ import ptu.fsd.nyaysahayak.act_service.services.ActService;
 
 public class ActController {
 
+	// Set by other services looking an act up, such as favorite-service fetching the metadata it copies
+	public static final String SERVICE_LOOKUP = "X-Service-Lookup";
+
 	@Autowired
 	private ActService service;
+
+	@Autowired
+	private ActIngestService ingestService;
+
+	@Autowired
+	private ActExportService exportService;
+
+	@Autowired
+	private ActCatalogRevision revision;
+
+	@Autowired
+	private ActOutbox outbox;
 	
+	// Keyset-paginated list of act cards, optionally filtered by category, yearFrom, yearTo and tags;
+	// the full act is only served by /{id}
 	@GetMapping
-	private List<Act> getAllActs(){
-		return service.getAllActs();
+	public ResponseEntity<ActPage> getActs(@RequestParam(defaultValue = "0") int after,
+			@RequestParam(defaultValue = "50") int limit, ActFilter filter, WebRequest request){
+		return conditional(request, "list:" + after + ":" + limit + ":" + filter,
+				() -> service.getActCards(after, limit, filter));
+	}
+	
+	// Counts per category, year and tag for the acts matching the filter
+	@GetMapping("/facets")
+	public ResponseEntity<ActFacets> getFacets(ActFilter filter, WebRequest request) {
+		return conditional(request, "facets:" + filter, () -> service.getFacets(filter));
+	}
+	
+	// Multi-get by ids: GET /api/acts?ids=1,2,3&view=card|full
+	@GetMapping(params = "ids")
+	public ResponseEntity<ActBatch<?>> getActsByIds(@RequestParam List<Integer> ids,
+			@RequestParam(defaultValue = "full") String view, WebRequest request) {
+		if (ids.size() > ActService.MAX_BATCH_SIZE)
+			return ResponseEntity.badRequest().build();
+		return conditional(request, "ids:" + ids + ":" + view.toLowerCase(), () -> batch(ids, view).getBody());
+	}
+	
+	@PostMapping("/batch")
+	public ResponseEntity<ActBatch<?>> getActsBatch(@RequestBody ActBatchRequest request) {
+		return batch(request.getIds(), request.getView());
+	}
+	
+	private ResponseEntity<ActBatch<?>> batch(List<Integer> ids, String view) {
+		if (ids == null || ids.size() > ActService.MAX_BATCH_SIZE)
+			return ResponseEntity.badRequest().build();
+		if ("card".equalsIgnoreCase(view))
+			return ResponseEntity.ok(service.getActCardsByIds(ids));
+		return ResponseEntity.ok(service.getActsByIds(ids));
+	}
+	
+	// Normalised tags with the number of acts carrying each, most frequent first
+	@GetMapping("/tags")
+	public ResponseEntity<List<ActTagCount>> getTags(@RequestParam(defaultValue = "1000") int limit, WebRequest request) {
+		return conditional(request, "tags:" + limit, () -> service.getTags(limit));
+	}
+	
+	// Acts carrying all (mode=all) or any (mode=any) of the tags, as keyset-paginated cards
+	@GetMapping("/tags/match")
+	public ResponseEntity<ActPage> getActsByTags(@RequestParam List<String> tags,
+			@RequestParam(defaultValue = "all") String mode,
+			@RequestParam(defaultValue = "0") int after,
+			@RequestParam(defaultValue = "50") int limit, WebRequest request) {
+		boolean any = "any".equalsIgnoreCase(mode);
+		return conditional(request, "tags-match:" + any + ":" + after + ":" + limit + ":" + tags,
+				() -> service.getActCardsByTags(tags, any, after, limit));
+	}
+	
+	// Title completions for search-as-you-type, weighted by how often each act is opened
+	@GetMapping("/suggest")
+	public List<ActSuggestion> suggestActs(@RequestParam String prefix,
+			@RequestParam(defaultValue = "10") int limit) {
+		return service.suggestActs(prefix, limit);
+	}
+	
+	// Ranked full-text search over title, summary, key provisions, tags and applicability
+	@GetMapping("/search")
+	public ResponseEntity<List<ActSearchResult>> searchActs(@RequestParam("q") String query,
+			@RequestParam(defaultValue = "20") int limit, ActFilter filter, WebRequest request) {
+		return conditional(request, "search:" + limit + ":" + filter + ":" + query,
+				() -> service.searchActs(query, limit, filter));
+	}
+	
+	// Outbox of act writes after the given change id, oldest first; consumers pass the last id they applied
+	@GetMapping("/changes")
+	public List<ActChange> getChanges(@RequestParam(defaultValue = "0") long after,
+			@RequestParam(defaultValue = "500") int limit) {
+		return outbox.changesAfter(after, limit);
+	}
+	
+	// Typo-tolerant search over title, tags and key provisions; a response cut short by the latency
+	// budget is not given an ETag, so it is never revalidated in place of the complete one
+	@GetMapping("/search/fuzzy")
+	public ResponseEntity<ActFuzzyResults> fuzzySearchActs(@RequestParam("q") String query,
+			@RequestParam(defaultValue = "20") int limit, ActFilter filter, WebRequest request) {
+		String etag = revision.etag("fuzzy:" + limit + ":" + filter + ":" + query);
+		if (request.checkNotModified(etag, revision.lastModified()))
+			return notModified(etag);
+
+		ActFuzzyResults results = service.fuzzySearchActs(query, limit, filter);
+		return results.isTruncated() ? ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(results)
+				: ok(etag, results);
 	}
 	
+	// Acts linked to this one through related-laws references, up to `depth` hops (at most 3) away
+	@GetMapping("/{id}/related")
+	public ResponseEntity<List<ActRelation>> getRelatedActs(@PathVariable int id,
+			@RequestParam(defaultValue = "1") int depth, WebRequest request) {
+		String etag = revision.etag("related:" + id + ":" + depth);
+		if (request.checkNotModified(etag, revision.lastModified()))
+			return notModified(etag);
+
+		return service.getRelatedActs(id, depth).map(related -> ok(etag, related))
+				.orElseGet(() -> ResponseEntity.notFound().build());
+	}
+	
+	// The ETag is the act's version, the same value PATCH expects in If-Match. Only a lookup by a user, not by
+	// another service, counts as a view for the typeahead ranking.
 	@GetMapping("/{id}")
-	private ResponseEntity<Act> getActById(@PathVariable int id) {
-		
-		Optional<Act> act = service.getActById(id);        
-		return act.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+	private ResponseEntity<Act> getActById(@PathVariable int id,
+			@RequestHeader(value = SERVICE_LOOKUP, required = false) String serviceLookup, WebRequest request) {
+		Optional<Act> act = service.getActById(id);
+		if (act.isEmpty())
+			return ResponseEntity.notFound().build();
+		if (serviceLookup == null)
+			service.recordView(id);
+
+		String etag = "\"" + act.get().getVersion() + "\"";
+		if (request.checkNotModified(etag))
+			return notModified(etag);
+		return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(act.get());
+	}
+	
+	// Answers 304 from the corpus revision alone, before any lookup runs
+	private <T> ResponseEntity<T> conditional(WebRequest request, String variant, Supplier<T> body) {
+		String etag = revision.etag(variant);
+		if (request.checkNotModified(etag, revision.lastModified()))
+			return notModified(etag);
+		return ok(etag, body.get());
+	}
+	
+	private <T> ResponseEntity<T> ok(String etag, T body) {
+		return ResponseEntity.ok()
+				.eTag(etag)
+				.lastModified(revision.lastModified())
+				.cacheControl(CacheControl.noCache())
+				.body(body);
+	}
+	
+	private static <T> ResponseEntity<T> notModified(String etag) {
+		return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache()).build();
 	}
 	
 	@PostMapping("/save-act")
@@ -48,12 +219,57 @@ public class ActController {
         return service.saveAct(act);
     }
 	
+	// Streaming bulk load: a JSON array or NDJSON body, committed every `chunkSize` records
+	@PostMapping(value = "/ingest", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+	public ActIngestReport ingestActs(InputStream body, @RequestParam(defaultValue = "500") int chunkSize) {
+		return ingestService.ingest(body, chunkSize);
+	}
+	
+	// NDJSON dump of every act with an id greater than `after`; resume by passing the last id received
+	@GetMapping("/export")
+	public void exportActs(@RequestParam(defaultValue = "0") int after,
+			@RequestParam(defaultValue = "false") boolean gzip, HttpServletResponse response) throws IOException {
+		response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+		response.setCharacterEncoding("UTF-8");
+		if (gzip)
+			response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+		exportService.export(after, gzip, response.getOutputStream());
+	}
+	
     @PutMapping("/{id}")
     public ResponseEntity<Act> updateAct(@PathVariable int id, @RequestBody Act actDetails) {
         Act updatedAct = service.updateAct(id, actDetails);
         return updatedAct != null ? ResponseEntity.ok(updatedAct) : ResponseEntity.notFound().build();
     }
 
+    // JSON merge patch of an act's columns. If-Match carries the act's current version (e.g. "3", the ETag of
+    // GET /{id}), or * to patch whatever is stored; the response ETag is the new version.
+    @PatchMapping(value = "/{id}", consumes = { "application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE })
+    public ResponseEntity<Act> patchAct(@PathVariable int id, @RequestBody Map<String, Object> patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (ifMatch == null)
+            return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED).build();
+
+        Long version;
+        try {
+            String tag = ifMatch.trim();
+            version = "*".equals(tag) ? null : Long.valueOf(tag.replace("\"", ""));
+        } catch (NumberFormatException ex) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        Optional<Act> patched;
+        try {
+            patched = service.patchAct(id, version, patch);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (patched.isPresent())
+            return ResponseEntity.ok().eTag("\"" + patched.get().getVersion() + "\"").body(patched.get());
+        return service.actExists(id) ? ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build()
+                : ResponseEntity.notFound().build();
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteAct(@PathVariable int id) {
         service.deleteAct(id);
@@ -0,0 +1,17 @@
+package ptu.fsd.nyaysahayak.act_service.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Result of a multi-get: found items in the requested order, plus the ids that do not exist
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActBatch<T> {
+
+	private List<T> items;
+	private List<Integer> missing;
+}
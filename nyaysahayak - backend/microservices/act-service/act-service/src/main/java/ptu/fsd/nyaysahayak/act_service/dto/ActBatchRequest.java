@@ -0,0 +1,16 @@
+package ptu.fsd.nyaysahayak.act_service.dto;
+
+import java.util.List;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class ActBatchRequest {
+
+	private List<Integer> ids;
+
+	// "full" for the whole act, "card" for the list projection
+	private String view = "full";
+}
@@ -0,0 +1,19 @@
+package ptu.fsd.nyaysahayak.act_service.dto;
+
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Number of acts matching a filter, broken down per category, year and tag
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActFacets {
+
+	private int total;
+	private Map<String, Integer> categories;
+	private Map<Integer, Integer> years;
+	private Map<String, Integer> tags;
+}
@@ -0,0 +1,24 @@
+package ptu.fsd.nyaysahayak.act_service.dto;
+
+import java.util.List;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Facet filter bound from the category, yearFrom, yearTo and tags request parameters
+@Data
+@NoArgsConstructor
+public class ActFilter {
+
+	private String category;
+	private Integer yearFrom;
+	private Integer yearTo;
+
+	// An act must carry every listed tag
+	private List<String> tags;
+
+	public boolean isEmpty() {
+		return (category == null || category.isBlank()) && yearFrom == null && yearTo == null
+				&& (tags == null || tags.isEmpty());
+	}
+}
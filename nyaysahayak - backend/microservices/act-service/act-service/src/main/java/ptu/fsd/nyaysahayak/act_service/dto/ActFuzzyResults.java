@@ -0,0 +1,17 @@
+package ptu.fsd.nyaysahayak.act_service.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Ranked fuzzy matches; truncated is set when the latency budget ran out before every candidate was checked
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActFuzzyResults {
+
+	private List<ActSearchResult> items;
+	private boolean truncated;
+}
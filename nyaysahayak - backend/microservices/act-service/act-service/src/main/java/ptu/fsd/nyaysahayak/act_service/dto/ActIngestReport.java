@@ -0,0 +1,42 @@
+package ptu.fsd.nyaysahayak.act_service.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Summary of a streaming ingest; chunks committed before a failure stay committed
+@Data
+@NoArgsConstructor
+public class ActIngestReport {
+
+	// Only the first rejections are reported in detail
+	public static final int MAX_REPORTED_REJECTIONS = 100;
+
+	private int accepted;
+	private int updated;
+	private int rejected;
+	private int chunksCommitted;
+	private boolean completed;
+	private String error;
+	private long elapsedMs;
+	private List<Rejection> rejections = new ArrayList<>();
+
+	public void reject(int row, String reason) {
+		rejected++;
+		if (rejections.size() < MAX_REPORTED_REJECTIONS)
+			rejections.add(new Rejection(row, reason));
+	}
+
+	@Data
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class Rejection {
+
+		// Zero-based position of the record in the upload
+		private int row;
+		private String reason;
+	}
+}
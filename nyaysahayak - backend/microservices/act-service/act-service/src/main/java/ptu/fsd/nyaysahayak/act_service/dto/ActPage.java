@@ -0,0 +1,17 @@
+package ptu.fsd.nyaysahayak.act_service.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One page of act cards; nextCursor is passed back as `after` and is null on the last page
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActPage {
+
+	private List<ActCard> items;
+	private Integer nextCursor;
+}
@@ -0,0 +1,18 @@
+package ptu.fsd.nyaysahayak.act_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// An act reachable from another through resolved related-laws references, `hops` links away
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActRelation {
+
+	private int id;
+	private String title;
+	private String category;
+	private int year;
+	private int hops;
+}
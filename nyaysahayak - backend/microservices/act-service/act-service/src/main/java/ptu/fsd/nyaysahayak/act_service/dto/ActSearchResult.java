@@ -0,0 +1,19 @@
+package ptu.fsd.nyaysahayak.act_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActSearchResult {
+
+	private int id;
+	private String title;
+	private String category;
+	private int year;
+	private String summary;
+	private String tags;
+	private double score;
+}
@@ -0,0 +1,14 @@
+package ptu.fsd.nyaysahayak.act_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActSuggestion {
+
+	private int id;
+	private String title;
+}
@@ -0,0 +1,14 @@
+package ptu.fsd.nyaysahayak.act_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActTagCount {
+
+	private String tag;
+	private int count;
+}
@@ -0,0 +1,181 @@
+package ptu.fsd.nyaysahayak.act_service.index;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import ptu.fsd.nyaysahayak.act_service.dto.ActFacets;
+import ptu.fsd.nyaysahayak.act_service.dto.ActFilter;
+import ptu.fsd.nyaysahayak.act_service.dto.ActTagCount;
+import ptu.fsd.nyaysahayak.act_service.model.Act;
+
+// Posting lists of act ids per category and year, used to filter acts and count facets without the database.
+// Tag postings live in ActTagDictionary.
+@Component
+public class ActFacetIndex implements ActIndex {
+
+	// Tags are a long tail, so only the most frequent ones are counted in a facet response
+	private static final int MAX_TAG_COUNTS = 50;
+
+	@Autowired
+	private ActTagDictionary tagDictionary;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private final RoaringBitmap all = new RoaringBitmap();
+	private final Map<String, RoaringBitmap> categories = new HashMap<>();
+	private final TreeMap<Integer, RoaringBitmap> years = new TreeMap<>();
+	private final Map<Integer, Doc> docs = new HashMap<>();
+
+	@Override
+	public void rebuild(Collection<Act> acts) {
+		lock.writeLock().lock();
+		try {
+			all.clear();
+			categories.clear();
+			years.clear();
+			docs.clear();
+			for (Act act : acts)
+				add(act);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void put(Act act) {
+		lock.writeLock().lock();
+		try {
+			delete(act.getId());
+			add(act);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void remove(int actId) {
+		lock.writeLock().lock();
+		try {
+			delete(actId);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	// Ids of the acts matching the filter, as a private copy the caller may modify
+	public RoaringBitmap filter(ActFilter filter) {
+		lock.readLock().lock();
+		try {
+			return match(filter);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public ActFacets facets(ActFilter filter) {
+		lock.readLock().lock();
+		try {
+			Map<String, Integer> categoryCounts = new HashMap<>();
+			Map<Integer, Integer> yearCounts = new TreeMap<>();
+			Map<String, Integer> tagCounts;
+			int total;
+
+			if (filter == null || filter.isEmpty()) {
+				total = all.getCardinality();
+				categories.forEach((key, ids) -> categoryCounts.put(key, ids.getCardinality()));
+				years.forEach((year, ids) -> yearCounts.put(year, ids.getCardinality()));
+				tagCounts = new HashMap<>();
+				for (ActTagCount tag : tagDictionary.tags(MAX_TAG_COUNTS))
+					tagCounts.put(tag.getTag(), tag.getCount());
+			} else {
+				// Single pass over the matching acts
+				RoaringBitmap matches = match(filter);
+				total = matches.getCardinality();
+				IntIterator it = matches.getIntIterator();
+				while (it.hasNext()) {
+					Doc doc = docs.get(it.next());
+					if (doc.category != null)
+						categoryCounts.merge(doc.category, 1, Integer::sum);
+					yearCounts.merge(doc.year, 1, Integer::sum);
+				}
+				tagCounts = tagDictionary.countTags(matches);
+			}
+			return new ActFacets(total, byCount(categoryCounts, Integer.MAX_VALUE), yearCounts,
+					byCount(tagCounts, MAX_TAG_COUNTS));
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private RoaringBitmap match(ActFilter filter) {
+		RoaringBitmap result = all.clone();
+		if (filter == null)
+			return result;
+
+		String category = ActText.key(filter.getCategory());
+		if (category != null)
+			result.and(categories.getOrDefault(category, new RoaringBitmap()));
+
+		if (filter.getYearFrom() != null || filter.getYearTo() != null) {
+			int from = filter.getYearFrom() != null ? filter.getYearFrom() : Integer.MIN_VALUE;
+			int to = filter.getYearTo() != null ? filter.getYearTo() : Integer.MAX_VALUE;
+			RoaringBitmap inRange = from <= to
+					? RoaringBitmap.or(years.subMap(from, true, to, true).values().iterator())
+					: new RoaringBitmap();
+			result.and(inRange);
+		}
+
+		if (filter.getTags() != null && !filter.getTags().isEmpty())
+			result.and(tagDictionary.all(filter.getTags()));
+		return result;
+	}
+
+	private void add(Act act) {
+		Doc doc = new Doc(ActText.key(act.getCategory()), act.getYear());
+		docs.put(act.getId(), doc);
+		all.add(act.getId());
+		if (doc.category != null)
+			categories.computeIfAbsent(doc.category, k -> new RoaringBitmap()).add(act.getId());
+		years.computeIfAbsent(doc.year, k -> new RoaringBitmap()).add(act.getId());
+	}
+
+	private void delete(int actId) {
+		Doc doc = docs.remove(actId);
+		if (doc == null)
+			return;
+		all.remove(actId);
+		if (doc.category != null)
+			clear(categories, doc.category, actId);
+		clear(years, doc.year, actId);
+	}
+
+	private static <K> void clear(Map<K, RoaringBitmap> postings, K key, int actId) {
+		RoaringBitmap ids = postings.get(key);
+		if (ids == null)
+			return;
+		ids.remove(actId);
+		if (ids.isEmpty())
+			postings.remove(key);
+	}
+
+	private static Map<String, Integer> byCount(Map<String, Integer> counts, int limit) {
+		Map<String, Integer> sorted = new LinkedHashMap<>();
+		counts.entrySet().stream()
+				.sorted(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+				.limit(limit)
+				.forEach(e -> sorted.put(e.getKey(), e.getValue()));
+		return sorted;
+	}
+
+	private record Doc(String category, int year) {
+	}
+}
@@ -0,0 +1,369 @@
+package ptu.fsd.nyaysahayak.act_service.index;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import ptu.fsd.nyaysahayak.act_service.dto.ActFuzzyResults;
+import ptu.fsd.nyaysahayak.act_service.dto.ActSearchResult;
+import ptu.fsd.nyaysahayak.act_service.model.Act;
+
+// Typo-tolerant matching of query words against the words of act titles, tags and key provisions.
+// Every distinct word is a vocabulary term with its character trigrams indexed; a query word gathers
+// the terms sharing enough trigrams with it and keeps those within a small edit distance.
+@Component
+public class ActFuzzyIndex implements ActIndex {
+
+	private static final float TITLE_WEIGHT = 3f;
+	private static final float TAGS_WEIGHT = 2f;
+	private static final float PROVISIONS_WEIGHT = 1f;
+
+	private static final int MIN_WORD_LENGTH = 3;
+	private static final int MAX_QUERY_WORDS = 8;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	// A term whose last act goes away is unlinked from the term map and its trigrams and gives up its id, which
+	// the next new term takes, so ids (and the per-thread counters indexed by them) stay dense
+	private final Map<String, Integer> termIds = new HashMap<>();
+	private final List<Term> terms = new ArrayList<>();
+	private final Deque<Integer> freeIds = new ArrayDeque<>();
+	private final Map<String, RoaringBitmap> trigrams = new HashMap<>();
+	private final Map<Integer, Doc> docs = new HashMap<>();
+
+	// Per-thread shared-trigram counter indexed by term id, so a query word does not allocate one per term
+	private final ThreadLocal<Counts> scratch = ThreadLocal.withInitial(Counts::new);
+
+	private final long budgetNanos;
+
+	public ActFuzzyIndex(@Value("${acts.fuzzy.budget-ms:50}") long budgetMs) {
+		this.budgetNanos = budgetMs * 1_000_000;
+	}
+
+	@Override
+	public void rebuild(Collection<Act> acts) {
+		lock.writeLock().lock();
+		try {
+			termIds.clear();
+			terms.clear();
+			freeIds.clear();
+			trigrams.clear();
+			docs.clear();
+			for (Act act : acts)
+				add(act);
+			for (RoaringBitmap bitmap : trigrams.values())
+				bitmap.runOptimize();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void put(Act act) {
+		lock.writeLock().lock();
+		try {
+			delete(act.getId());
+			add(act);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void remove(int actId) {
+		lock.writeLock().lock();
+		try {
+			delete(actId);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	// Top `limit` acts by summed similarity of their best-matching term for each query word,
+	// restricted to the act ids accepted by the filter when it is not null
+	public ActFuzzyResults search(String query, int limit, IntPredicate filter) {
+		long deadline = System.nanoTime() + budgetNanos;
+		List<String> words = queryWords(query);
+		if (words.isEmpty() || limit <= 0)
+			return new ActFuzzyResults(new ArrayList<>(), false);
+
+		lock.readLock().lock();
+		try {
+			Map<Integer, Double> scores = new HashMap<>();
+			boolean truncated = false;
+			for (String word : words) {
+				Map<Integer, Float> best = new HashMap<>();
+				truncated = match(word, deadline, best);
+				best.forEach((id, score) -> scores.merge(id, (double) score, Double::sum));
+				if (truncated)
+					break;
+			}
+
+			PriorityQueue<Map.Entry<Integer, Double>> top = new PriorityQueue<>(limit + 1, Map.Entry.comparingByValue());
+			for (Map.Entry<Integer, Double> e : scores.entrySet()) {
+				if (filter != null && !filter.test(e.getKey()))
+					continue;
+				top.add(e);
+				if (top.size() > limit)
+					top.poll();
+			}
+
+			ActSearchResult[] results = new ActSearchResult[top.size()];
+			for (int i = results.length - 1; i >= 0; i--) {
+				Map.Entry<Integer, Double> hit = top.poll();
+				Doc doc = docs.get(hit.getKey());
+				results[i] = new ActSearchResult(hit.getKey(), doc.title, doc.category, doc.year, doc.summary, doc.tags,
+						hit.getValue());
+			}
+			return new ActFuzzyResults(new ArrayList<>(Arrays.asList(results)), truncated);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	// Collects into best the highest weighted similarity of any act term close to the word; returns true
+	// when the deadline passed before every candidate term was verified
+	private boolean match(String word, long deadline, Map<Integer, Float> best) {
+		int maxEdits = maxEdits(word.length());
+		// Distinct grams: a term's id is in each posting list once, so a repeated gram ("aaaa") must count once too
+		Set<String> grams = new LinkedHashSet<>(trigrams(word));
+		int minShared = Math.max(1, grams.size() - 3 * maxEdits);
+
+		Counts shared = scratch.get();
+		try {
+			for (String gram : grams) {
+				RoaringBitmap ids = trigrams.get(gram);
+				if (ids == null)
+					continue;
+				IntIterator it = ids.getIntIterator();
+				while (it.hasNext())
+					shared.increment(it.next());
+			}
+
+			int verified = 0;
+			for (int k = 0; k < shared.touchedCount; k++) {
+				int id = shared.touched[k];
+				if (shared.values[id] < minShared)
+					continue;
+				if ((++verified & 63) == 0 && System.nanoTime() > deadline)
+					return true;
+				Term term = terms.get(id);
+				int distance = distance(word, term.text, maxEdits);
+				if (distance > maxEdits)
+					continue;
+				float similarity = 1f - (float) distance / Math.max(word.length(), term.text.length());
+				for (int i = 0; i < term.size; i++)
+					best.merge(term.ids[i], similarity * term.weights[i], Math::max);
+			}
+			return false;
+		} finally {
+			shared.reset();
+		}
+	}
+
+	// Short words must match exactly, longer ones tolerate one or two edits
+	private static int maxEdits(int length) {
+		return length <= 3 ? 0 : length <= 6 ? 1 : 2;
+	}
+
+	// Levenshtein distance, giving up with maxEdits + 1 as soon as it cannot stay within maxEdits
+	static int distance(String a, String b, int maxEdits) {
+		if (Math.abs(a.length() - b.length()) > maxEdits)
+			return maxEdits + 1;
+		int[] previous = new int[b.length() + 1];
+		int[] current = new int[b.length() + 1];
+		for (int j = 0; j <= b.length(); j++)
+			previous[j] = j;
+		for (int i = 1; i <= a.length(); i++) {
+			current[0] = i;
+			int rowMin = current[0];
+			for (int j = 1; j <= b.length(); j++) {
+				int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+				current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+				rowMin = Math.min(rowMin, current[j]);
+			}
+			if (rowMin > maxEdits)
+				return maxEdits + 1;
+			int[] swap = previous;
+			previous = current;
+			current = swap;
+		}
+		return previous[b.length()];
+	}
+
+	// Trigrams of the word padded with a boundary marker, so "nyay" gives "$ny", "nya", "yay", "ay$"
+	static List<String> trigrams(String word) {
+		String padded = "$" + word + "$";
+		List<String> grams = new ArrayList<>(padded.length() - 2);
+		for (int i = 0; i + 3 <= padded.length(); i++)
+			grams.add(padded.substring(i, i + 3));
+		return grams;
+	}
+
+	private static List<String> queryWords(String query) {
+		Set<String> words = new LinkedHashSet<>();
+		for (String word : ActText.normalize(query).split(" ")) {
+			if (word.length() >= MIN_WORD_LENGTH && !ActText.isStopWord(word))
+				words.add(word);
+			if (words.size() == MAX_QUERY_WORDS)
+				break;
+		}
+		return new ArrayList<>(words);
+	}
+
+	private void add(Act act) {
+		Map<String, Float> weights = new HashMap<>();
+		collect(weights, act.getTitle(), TITLE_WEIGHT);
+		collect(weights, act.getTags(), TAGS_WEIGHT);
+		collect(weights, act.getKeyProvisions(), PROVISIONS_WEIGHT);
+
+		int[] ids = new int[weights.size()];
+		int i = 0;
+		for (Map.Entry<String, Float> e : weights.entrySet()) {
+			Integer id = termIds.get(e.getKey());
+			if (id == null) {
+				id = freeIds.poll();
+				if (id == null) {
+					id = terms.size();
+					terms.add(new Term(e.getKey()));
+				} else {
+					terms.set(id, new Term(e.getKey()));
+				}
+				termIds.put(e.getKey(), id);
+				for (String gram : trigrams(e.getKey()))
+					trigrams.computeIfAbsent(gram, k -> new RoaringBitmap()).add(id);
+			}
+			terms.get(id).add(act.getId(), e.getValue());
+			ids[i++] = id;
+		}
+		docs.put(act.getId(), new Doc(act.getTitle(), act.getCategory(), act.getYear(), act.getSummary(), act.getTags(), ids));
+	}
+
+	private void delete(int actId) {
+		Doc doc = docs.remove(actId);
+		if (doc == null)
+			return;
+		for (int id : doc.terms) {
+			Term term = terms.get(id);
+			if (term.remove(actId) > 0)
+				continue;
+			termIds.remove(term.text);
+			for (String gram : trigrams(term.text)) {
+				RoaringBitmap ids = trigrams.get(gram);
+				if (ids != null && ids.checkedRemove(id) && ids.isEmpty())
+					trigrams.remove(gram);
+			}
+			terms.set(id, null);
+			freeIds.push(id);
+		}
+	}
+
+	// Term ids handed out so far, in use or free; bounded by the most distinct terms ever in use at once
+	int termIdCount() {
+		lock.readLock().lock();
+		try {
+			return terms.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	// A word keeps the weight of the most important field it appears in
+	private static void collect(Map<String, Float> weights, String text, float weight) {
+		for (String word : ActText.normalize(text).split(" ")) {
+			if (word.length() >= MIN_WORD_LENGTH && !ActText.isStopWord(word))
+				weights.merge(word, weight, Math::max);
+		}
+	}
+
+	private static final class Doc {
+		final String title;
+		final String category;
+		final int year;
+		final String summary;
+		final String tags;
+		final int[] terms;
+
+		Doc(String title, String category, int year, String summary, String tags, int[] terms) {
+			this.title = title;
+			this.category = category;
+			this.year = year;
+			this.summary = summary;
+			this.tags = tags;
+			this.terms = terms;
+		}
+	}
+
+	private static final class Counts {
+		int[] values = new int[1024];
+		int[] touched = new int[64];
+		int touchedCount;
+
+		void increment(int id) {
+			if (id >= values.length)
+				values = Arrays.copyOf(values, Math.max(id + 1, values.length * 2));
+			if (values[id]++ == 0) {
+				if (touchedCount == touched.length)
+					touched = Arrays.copyOf(touched, touchedCount * 2);
+				touched[touchedCount++] = id;
+			}
+		}
+
+		void reset() {
+			for (int i = 0; i < touchedCount; i++)
+				values[touched[i]] = 0;
+			touchedCount = 0;
+		}
+	}
+
+	// A vocabulary word with the acts containing it, as parallel (act id, field weight) arrays
+	private static final class Term {
+		final String text;
+		int[] ids = new int[2];
+		float[] weights = new float[2];
+		int size;
+
+		Term(String text) {
+			this.text = text;
+		}
+
+		void add(int id, float weight) {
+			if (size == ids.length) {
+				ids = Arrays.copyOf(ids, size * 2);
+				weights = Arrays.copyOf(weights, size * 2);
+			}
+			ids[size] = id;
+			weights[size] = weight;
+			size++;
+		}
+
+		// Swap-removes the act and returns the remaining posting count
+		int remove(int id) {
+			for (int i = 0; i < size; i++) {
+				if (ids[i] == id) {
+					size--;
+					ids[i] = ids[size];
+					weights[i] = weights[size];
+					break;
+				}
+			}
+			return size;
+		}
+	}
+}
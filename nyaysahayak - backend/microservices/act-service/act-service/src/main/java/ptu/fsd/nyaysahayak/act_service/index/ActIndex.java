@@ -0,0 +1,17 @@
+package ptu.fsd.nyaysahayak.act_service.index;
+
+import java.util.Collection;
+
+import ptu.fsd.nyaysahayak.act_service.model.Act;
+
+// In-memory read-side structure that is kept in sync with the Acts table by ActIndexer
+public interface ActIndex {
+
+	// Replace the whole content of the index with the given acts
+	void rebuild(Collection<Act> acts);
+
+	// Add the act, or replace it if an act with the same id is already indexed
+	void put(Act act);
+
+	void remove(int actId);
+}
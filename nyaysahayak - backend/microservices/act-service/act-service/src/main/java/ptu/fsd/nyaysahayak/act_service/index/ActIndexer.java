@@ -0,0 +1,155 @@
+package ptu.fsd.nyaysahayak.act_service.index;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import ptu.fsd.nyaysahayak.act_service.model.Act;
+import ptu.fsd.nyaysahayak.act_service.repository.ActRepo;
+
+// Loads every ActIndex on startup, from the index snapshot when there is a usable one and from the database
+// otherwise, and forwards ActService writes to them
+@Component
+public class ActIndexer {
+
+	private static final Logger log = LoggerFactory.getLogger(ActIndexer.class);
+
+	@Autowired
+	private ActRepo repo;
+
+	@Autowired
+	private List<ActIndex> indexes;
+
+	@Autowired
+	private ActSnapshot snapshot;
+
+	@Autowired
+	private MeterRegistry registry;
+
+	// Writes committed shortly before a snapshot may carry an older timestamp than its watermark
+	@Value("${acts.snapshot.catch-up-margin-seconds:60}")
+	private long catchUpMarginSeconds;
+
+	private volatile boolean rebuilt;
+
+	// What catching up needs of a loaded snapshot, once its acts are indexed and released
+	private record Loaded(Set<Integer> ids, Instant watermark) {
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void rebuild() {
+		long start = System.nanoTime();
+		Optional<Loaded> saved = rebuildFromSnapshot();
+		String source;
+		if (saved.isPresent()) {
+			source = "snapshot";
+			log.info("Indexed {} acts from snapshot in {} ms", saved.get().ids().size(), (System.nanoTime() - start) / 1_000_000);
+		} else {
+			source = "database";
+			int count = rebuildFromDatabase();
+			log.info("Indexed {} acts in {} ms", count, (System.nanoTime() - start) / 1_000_000);
+		}
+
+		// Cold start to the first query the indexes can answer
+		long ready = ManagementFactory.getRuntimeMXBean().getUptime();
+		TimeGauge.builder("acts.index.ready", () -> ready, TimeUnit.MILLISECONDS)
+				.description("Time from JVM start until the act indexes could serve queries")
+				.tag("source", source)
+				.register(registry);
+		log.info("Act indexes serving {} ms after JVM start (from {})", ready, source);
+
+		saved.ifPresent(this::catchUp);
+		snapshot.writeIfChanged();
+		rebuilt = true;
+	}
+
+	// True once the startup rebuild has finished, so changes can be applied on top of it
+	public boolean isReady() {
+		return rebuilt;
+	}
+
+	// The acts read from the file are only referenced here, so they can be collected once this returns
+	private Optional<Loaded> rebuildFromSnapshot() {
+		Optional<ActSnapshot.Contents> contents = snapshot.load();
+		if (contents.isEmpty())
+			return Optional.empty();
+		List<Act> acts = contents.get().acts();
+		rebuild(acts);
+		snapshot.loadedFromFile();
+		Set<Integer> ids = new HashSet<>(acts.size() * 2);
+		for (Act act : acts)
+			ids.add(act.getId());
+		return Optional.of(new Loaded(ids, contents.get().watermark()));
+	}
+
+	private int rebuildFromDatabase() {
+		List<Act> acts = repo.findAll();
+		rebuild(acts);
+		return acts.size();
+	}
+
+	// Applies the writes and deletions made since the snapshot was taken
+	private void catchUp(Loaded saved) {
+		long start = System.nanoTime();
+		Set<Integer> current = new HashSet<>(repo.findAllIds());
+		Set<Integer> snapshotted = saved.ids();
+		int removed = 0;
+		for (Integer id : snapshotted) {
+			if (!current.contains(id)) {
+				removeAct(id);
+				removed++;
+			}
+		}
+
+		Instant since = saved.watermark() == null ? Instant.EPOCH
+				: saved.watermark().minus(Duration.ofSeconds(catchUpMarginSeconds));
+		List<Act> changed = new ArrayList<>(repo.findByModifiedAtAfter(since));
+		// Rows without a modification time (written before the column existed or outside JPA) are found by id
+		current.removeAll(snapshotted);
+		for (Act act : changed)
+			current.remove(act.getId());
+		if (!current.isEmpty())
+			changed.addAll(repo.findAllById(current));
+
+		indexActs(changed);
+		log.info("Caught up from snapshot: {} acts reindexed, {} removed in {} ms", changed.size(), removed,
+				(System.nanoTime() - start) / 1_000_000);
+	}
+
+	private void rebuild(List<Act> acts) {
+		for (ActIndex index : indexes)
+			index.rebuild(acts);
+	}
+
+	public void indexAct(Act act) {
+		for (ActIndex index : indexes)
+			index.put(act);
+	}
+
+	public void indexActs(Collection<Act> acts) {
+		for (Act act : acts)
+			indexAct(act);
+	}
+
+	public void removeAct(int actId) {
+		for (ActIndex index : indexes)
+			index.remove(actId);
+	}
+}
@@ -0,0 +1,282 @@
+package ptu.fsd.nyaysahayak.act_service.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import ptu.fsd.nyaysahayak.act_service.dto.ActRelation;
+import ptu.fsd.nyaysahayak.act_service.model.Act;
+
+// Graph of acts linked by their related-laws column. References are resolved to act ids by matching
+// title mentions in the free text; the undirected adjacency is kept in CSR form (offsets + targets int
+// arrays) and rebuilt lazily after writes, with multi-hop traversals cached per (act, depth).
+@Component
+public class ActRelatedGraph implements ActIndex {
+
+	public static final int MAX_DEPTH = 3;
+	public static final int MAX_RELATED = 200;
+
+	// Longest title mention, in words, looked for in the related-laws text
+	private static final int MAX_SPAN = 12;
+	private static final int[] NONE = new int[0];
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private final Map<Integer, Doc> docs = new HashMap<>();
+	private final Map<String, Set<Integer>> titles = new HashMap<>();
+
+	// Set when a title changes, since references of other acts may now resolve differently
+	private boolean resolveAll;
+	private volatile Csr csr;
+	private long generation;
+
+	private final Cache<Traversal, List<ActRelation>> traversals;
+
+	public ActRelatedGraph(MeterRegistry registry, @Value("${acts.related.cache-size:10000}") long cacheSize) {
+		this.traversals = Caffeine.newBuilder()
+				.maximumSize(cacheSize)
+				.recordStats()
+				.build();
+		CaffeineCacheMetrics.monitor(registry, traversals, "acts.related");
+	}
+
+	@Override
+	public void rebuild(Collection<Act> acts) {
+		lock.writeLock().lock();
+		try {
+			docs.clear();
+			titles.clear();
+			for (Act act : acts)
+				add(act);
+			resolveAll = true;
+			csr = null;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void put(Act act) {
+		lock.writeLock().lock();
+		try {
+			Doc previous = delete(act.getId());
+			Doc doc = add(act);
+			if (previous == null || !previous.titleKeys.equals(doc.titleKeys))
+				resolveAll = true;
+			else
+				doc.targets = resolve(doc.references, act.getId());
+			csr = null;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void remove(int actId) {
+		lock.writeLock().lock();
+		try {
+			if (delete(actId) != null) {
+				resolveAll = true;
+				csr = null;
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	// Acts within `depth` hops of the act, nearest first; empty when the act is unknown
+	public Optional<List<ActRelation>> related(int actId, int depth) {
+		Csr graph = graph();
+		int node = Arrays.binarySearch(graph.ids, actId);
+		if (node < 0)
+			return Optional.empty();
+		int hops = Math.min(Math.max(depth, 1), MAX_DEPTH);
+		return Optional.of(traversals.get(new Traversal(graph.generation, actId, hops), key -> bfs(graph, node, hops)));
+	}
+
+	private Csr graph() {
+		Csr graph = csr;
+		if (graph != null)
+			return graph;
+
+		lock.writeLock().lock();
+		try {
+			if (csr == null) {
+				if (resolveAll) {
+					for (Map.Entry<Integer, Doc> e : docs.entrySet())
+						e.getValue().targets = resolve(e.getValue().references, e.getKey());
+					resolveAll = false;
+				}
+				csr = build();
+				traversals.invalidateAll();
+			}
+			return csr;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	// Each resolved reference becomes an edge in both directions; pairs are packed into longs, sorted and deduplicated
+	private Csr build() {
+		int[] ids = docs.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+		Doc[] nodes = new Doc[ids.length];
+		int edgeCount = 0;
+		for (int i = 0; i < ids.length; i++) {
+			nodes[i] = docs.get(ids[i]);
+			edgeCount += nodes[i].targets.length * 2;
+		}
+
+		long[] edges = new long[edgeCount];
+		int size = 0;
+		for (int i = 0; i < ids.length; i++) {
+			for (int target : nodes[i].targets) {
+				int j = Arrays.binarySearch(ids, target);
+				if (j < 0 || j == i)
+					continue;
+				edges[size++] = (long) i << 32 | j;
+				edges[size++] = (long) j << 32 | i;
+			}
+		}
+		Arrays.sort(edges, 0, size);
+
+		int[] offsets = new int[ids.length + 1];
+		int[] targets = new int[size];
+		int count = 0;
+		for (int k = 0; k < size; k++) {
+			if (k > 0 && edges[k] == edges[k - 1])
+				continue;
+			offsets[(int) (edges[k] >>> 32) + 1]++;
+			targets[count++] = (int) edges[k];
+		}
+		for (int i = 0; i < ids.length; i++)
+			offsets[i + 1] += offsets[i];
+		return new Csr(++generation, ids, nodes, offsets, Arrays.copyOf(targets, count));
+	}
+
+	private static List<ActRelation> bfs(Csr graph, int start, int depth) {
+		List<ActRelation> related = new ArrayList<>();
+		boolean[] seen = new boolean[graph.ids.length];
+		int[] queue = new int[graph.ids.length];
+		int head = 0;
+		int tail = 0;
+		seen[start] = true;
+		queue[tail++] = start;
+
+		for (int hops = 1; hops <= depth && head < tail; hops++) {
+			int levelEnd = tail;
+			while (head < levelEnd) {
+				int node = queue[head++];
+				for (int e = graph.offsets[node]; e < graph.offsets[node + 1]; e++) {
+					int next = graph.targets[e];
+					if (seen[next])
+						continue;
+					seen[next] = true;
+					queue[tail++] = next;
+					Doc doc = graph.nodes[next];
+					related.add(new ActRelation(graph.ids[next], doc.title, doc.category, doc.year, hops));
+					if (related.size() == MAX_RELATED)
+						return related;
+				}
+			}
+		}
+		return related;
+	}
+
+	// Greedy longest match of known titles over the words of the related-laws text
+	private int[] resolve(String[] words, int selfId) {
+		Set<Integer> targets = new LinkedHashSet<>();
+		int i = 0;
+		while (i < words.length) {
+			int matched = 0;
+			for (int len = Math.min(MAX_SPAN, words.length - i); len > 0 && matched == 0; len--) {
+				Set<Integer> ids = titles.get(String.join(" ", Arrays.copyOfRange(words, i, i + len)));
+				if (ids != null) {
+					for (int id : ids)
+						if (id != selfId)
+							targets.add(id);
+					matched = len;
+				}
+			}
+			i += Math.max(matched, 1);
+		}
+		return targets.stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	private Doc add(Act act) {
+		String relatedLaws = ActText.normalize(act.getRelatedLaws());
+		Doc doc = new Doc(act.getTitle(), act.getCategory(), act.getYear(), titleKeys(act.getTitle()),
+				relatedLaws.isEmpty() ? new String[0] : relatedLaws.split(" "));
+		docs.put(act.getId(), doc);
+		for (String key : doc.titleKeys)
+			titles.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(act.getId());
+		return doc;
+	}
+
+	private Doc delete(int actId) {
+		Doc doc = docs.remove(actId);
+		if (doc == null)
+			return null;
+		for (String key : doc.titleKeys) {
+			Set<Integer> ids = titles.get(key);
+			if (ids != null && ids.remove(actId) && ids.isEmpty())
+				titles.remove(key);
+		}
+		return doc;
+	}
+
+	// "The Indian Penal Code, 1860" is also referred to without the article and without the year
+	static Set<String> titleKeys(String title) {
+		Set<String> keys = new LinkedHashSet<>();
+		String normalized = ActText.normalize(title);
+		if (normalized.isEmpty())
+			return keys;
+		keys.add(normalized);
+		String withoutYear = normalized.replaceFirst(" \\d{4}$", "");
+		keys.add(withoutYear);
+		for (String key : List.of(normalized, withoutYear)) {
+			if (key.startsWith("the "))
+				keys.add(key.substring(4));
+		}
+		keys.removeIf(key -> key.isEmpty() || ActText.isStopWord(key));
+		return keys;
+	}
+
+	private static final class Doc {
+		final String title;
+		final String category;
+		final int year;
+		final Set<String> titleKeys;
+		final String[] references;
+		int[] targets = NONE;
+
+		Doc(String title, String category, int year, Set<String> titleKeys, String[] references) {
+			this.title = title;
+			this.category = category;
+			this.year = year;
+			this.titleKeys = titleKeys;
+			this.references = references;
+		}
+	}
+
+	// Immutable snapshot: node i is act ids[i], its neighbours are targets[offsets[i]..offsets[i + 1])
+	private record Csr(long generation, int[] ids, Doc[] nodes, int[] offsets, int[] targets) {
+	}
+
+	private record Traversal(long generation, int actId, int depth) {
+	}
+}
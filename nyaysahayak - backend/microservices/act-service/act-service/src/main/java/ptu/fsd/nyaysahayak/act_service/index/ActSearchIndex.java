@@ -0,0 +1,264 @@
+package ptu.fsd.nyaysahayak.act_service.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+
+import org.springframework.stereotype.Component;
+
+import ptu.fsd.nyaysahayak.act_service.dto.ActSearchResult;
+import ptu.fsd.nyaysahayak.act_service.model.Act;
+
+// Inverted index over the searchable act columns, ranked with BM25F: term frequencies and document lengths
+// both count each field's terms by the field's weight, so a long title is normalised like a long body
+@Component
+public class ActSearchIndex implements ActIndex {
+
+	private static final double K1 = 1.2;
+	private static final double B = 0.75;
+
+	// A term found in the title counts three times as much as one found in the body columns
+	private static final float TITLE_WEIGHT = 3f;
+	private static final float TAGS_WEIGHT = 2f;
+	private static final float BODY_WEIGHT = 1f;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private final Map<String, Postings> postings = new HashMap<>();
+	private final Map<Integer, Doc> docs = new HashMap<>();
+	private double totalLength;
+
+	// Per-thread score accumulator indexed by act id, so a query does not box a score per hit
+	private final ThreadLocal<Scores> scratch = ThreadLocal.withInitial(Scores::new);
+
+	@Override
+	public void rebuild(Collection<Act> acts) {
+		lock.writeLock().lock();
+		try {
+			postings.clear();
+			docs.clear();
+			totalLength = 0;
+			for (Act act : acts)
+				add(act);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void put(Act act) {
+		lock.writeLock().lock();
+		try {
+			delete(act.getId());
+			add(act);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void remove(int actId) {
+		lock.writeLock().lock();
+		try {
+			delete(actId);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return docs.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	// Top `limit` acts for the query, best match first
+	public List<ActSearchResult> search(String query, int limit) {
+		return search(query, limit, null);
+	}
+
+	// Same as search(query, limit), restricted to the act ids accepted by the filter when it is not null
+	public List<ActSearchResult> search(String query, int limit, IntPredicate filter) {
+		List<String> terms = new ArrayList<>(new LinkedHashSet<>(ActText.terms(query)));
+		if (terms.isEmpty() || limit <= 0)
+			return new ArrayList<>();
+
+		lock.readLock().lock();
+		try {
+			if (docs.isEmpty())
+				return new ArrayList<>();
+
+			Scores scores = scratch.get();
+			double n = docs.size();
+			double avgLength = totalLength / docs.size();
+
+			for (String term : terms) {
+				Postings p = postings.get(term);
+				if (p == null)
+					continue;
+				double idf = Math.log(1 + (n - p.size + 0.5) / (p.size + 0.5));
+				for (int i = 0; i < p.size; i++) {
+					double tf = p.tfs[i];
+					double norm = K1 * (1 - B + B * p.lengths[i] / avgLength);
+					scores.add(p.ids[i], idf * tf * (K1 + 1) / (tf + norm));
+				}
+			}
+
+			PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1, Comparator.comparingDouble((Hit h) -> h.score));
+			for (int i = 0; i < scores.touchedCount; i++) {
+				int id = scores.touched[i];
+				if (filter != null && !filter.test(id))
+					continue;
+				double score = scores.values[id];
+				if (top.size() < limit) {
+					top.add(new Hit(id, score));
+				} else if (score > top.peek().score) {
+					top.poll();
+					top.add(new Hit(id, score));
+				}
+			}
+			scores.reset();
+
+			ActSearchResult[] results = new ActSearchResult[top.size()];
+			for (int i = results.length - 1; i >= 0; i--) {
+				Hit hit = top.poll();
+				Doc doc = docs.get(hit.id);
+				results[i] = new ActSearchResult(doc.id, doc.title, doc.category, doc.year, doc.summary, doc.tags, hit.score);
+			}
+			return new ArrayList<>(Arrays.asList(results));
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private void add(Act act) {
+		Map<String, float[]> tfs = new HashMap<>();
+		float length = 0;
+		length += count(tfs, act.getTitle(), TITLE_WEIGHT);
+		length += count(tfs, act.getTags(), TAGS_WEIGHT);
+		length += count(tfs, act.getSummary(), BODY_WEIGHT);
+		length += count(tfs, act.getKeyProvisions(), BODY_WEIGHT);
+		length += count(tfs, act.getApplicability(), BODY_WEIGHT);
+
+		Doc doc = new Doc(act.getId(), act.getTitle(), act.getCategory(), act.getYear(), act.getSummary(),
+				act.getTags(), tfs.keySet().toArray(new String[0]));
+		docs.put(doc.id, doc);
+		totalLength += length;
+		doc.length = length;
+
+		for (Map.Entry<String, float[]> e : tfs.entrySet())
+			postings.computeIfAbsent(e.getKey(), k -> new Postings()).add(doc.id, e.getValue()[0], length);
+	}
+
+	private void delete(int actId) {
+		Doc doc = docs.remove(actId);
+		if (doc == null)
+			return;
+		totalLength -= doc.length;
+		for (String term : doc.terms) {
+			Postings p = postings.get(term);
+			if (p != null && p.remove(actId) == 0)
+				postings.remove(term);
+		}
+	}
+
+	// Adds the text's terms to tfs and returns their weighted count, the field's share of the document length
+	private static float count(Map<String, float[]> tfs, String text, float weight) {
+		List<String> terms = ActText.terms(text);
+		for (String term : terms)
+			tfs.computeIfAbsent(term, k -> new float[1])[0] += weight;
+		return terms.size() * weight;
+	}
+
+	private static final class Doc {
+		final int id;
+		final String title;
+		final String category;
+		final int year;
+		final String summary;
+		final String tags;
+		final String[] terms;
+		float length;
+
+		Doc(int id, String title, String category, int year, String summary, String tags, String[] terms) {
+			this.id = id;
+			this.title = title;
+			this.category = category;
+			this.year = year;
+			this.summary = summary;
+			this.tags = tags;
+			this.terms = terms;
+		}
+	}
+
+	// Parallel primitive arrays of (act id, weighted term frequency, weighted document length)
+	private static final class Postings {
+		int[] ids = new int[4];
+		float[] tfs = new float[4];
+		float[] lengths = new float[4];
+		int size;
+
+		void add(int id, float tf, float length) {
+			if (size == ids.length) {
+				ids = Arrays.copyOf(ids, size * 2);
+				tfs = Arrays.copyOf(tfs, size * 2);
+				lengths = Arrays.copyOf(lengths, size * 2);
+			}
+			ids[size] = id;
+			tfs[size] = tf;
+			lengths[size] = length;
+			size++;
+		}
+
+		// Swap-removes the act and returns the remaining posting count
+		int remove(int id) {
+			for (int i = 0; i < size; i++) {
+				if (ids[i] == id) {
+					size--;
+					ids[i] = ids[size];
+					tfs[i] = tfs[size];
+					lengths[i] = lengths[size];
+					break;
+				}
+			}
+			return size;
+		}
+	}
+
+	private static final class Scores {
+		double[] values = new double[1024];
+		int[] touched = new int[64];
+		int touchedCount;
+
+		void add(int id, double score) {
+			if (id >= values.length)
+				values = Arrays.copyOf(values, Math.max(id + 1, values.length * 2));
+			if (values[id] == 0) {
+				if (touchedCount == touched.length)
+					touched = Arrays.copyOf(touched, touchedCount * 2);
+				touched[touchedCount++] = id;
+			}
+			values[id] += score;
+		}
+
+		void reset() {
+			for (int i = 0; i < touchedCount; i++)
+				values[touched[i]] = 0;
+			touchedCount = 0;
+		}
+	}
+
+	private record Hit(int id, double score) {
+	}
+}
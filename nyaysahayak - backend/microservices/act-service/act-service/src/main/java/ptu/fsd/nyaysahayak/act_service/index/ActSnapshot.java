@@ -0,0 +1,284 @@
+package ptu.fsd.nyaysahayak.act_service.index;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import ptu.fsd.nyaysahayak.act_service.model.Act;
+import ptu.fsd.nyaysahayak.act_service.repository.ActRepo;
+
+// The act columns the indexes are built from, written to a checksummed snapshot file so a new instance can
+// rebuild its indexes from a memory-mapped file instead of the database. Only each act's modification time is
+// kept in memory, to tell real changes from writes the snapshot already holds; the file is written from a
+// database cursor, so no copy of the act text outlives the rebuild.
+//
+// Layout (big-endian): magic, format version, written-at millis, watermark millis (-1 when unknown),
+// act count, payload length, CRC32 of the payload, then per act its id, year, modified-at millis and
+// the indexed text columns as length-prefixed UTF-8 (-1 for null).
+@Component
+public class ActSnapshot implements ActIndex {
+
+	private static final Logger log = LoggerFactory.getLogger(ActSnapshot.class);
+
+	private static final int MAGIC = 0x4E594153; // "NYAS"
+	private static final int VERSION = 1;
+	private static final int HEADER_BYTES = 4 + 4 + 8 + 8 + 4 + 8 + 8;
+
+	private final ActRepo repo;
+	private final EntityManager entityManager;
+	private final TransactionTemplate transaction;
+	private final Path path;
+	private final boolean enabled;
+
+	// Modified-at millis by act id, -1 when unknown
+	private final Map<Integer, Long> modified = new HashMap<>();
+	private boolean dirty;
+
+	public ActSnapshot(ActRepo repo, EntityManager entityManager, PlatformTransactionManager transactionManager,
+			@Value("${acts.snapshot.path:data/act-index.snap}") String path,
+			@Value("${acts.snapshot.enabled:true}") boolean enabled) {
+		this.repo = repo;
+		this.entityManager = entityManager;
+		this.transaction = new TransactionTemplate(transactionManager);
+		this.transaction.setReadOnly(true);
+		this.path = Paths.get(path);
+		this.enabled = enabled;
+	}
+
+	// Acts in a snapshot and the latest modification time among them
+	public record Contents(List<Act> acts, Instant watermark) {
+	}
+
+	// Marks the snapshot for writing, unless loadedFromFile() follows because the acts came from it
+	@Override
+	public synchronized void rebuild(Collection<Act> acts) {
+		modified.clear();
+		for (Act act : acts)
+			modified.put(act.getId(), millis(act));
+		dirty = true;
+	}
+
+	// Called after a rebuild from load(), whose acts the file already holds
+	public synchronized void loadedFromFile() {
+		dirty = false;
+	}
+
+	// An act the snapshot already holds at the same modification time does not need another write
+	@Override
+	public synchronized void put(Act act) {
+		long millis = millis(act);
+		Long previous = modified.put(act.getId(), millis);
+		if (previous == null || previous != millis || millis < 0)
+			dirty = true;
+	}
+
+	@Override
+	public synchronized void remove(int actId) {
+		if (modified.remove(actId) != null)
+			dirty = true;
+	}
+
+	// Reads the snapshot file; empty when there is none or it is unreadable, truncated, corrupt or of another version
+	public Optional<Contents> load() {
+		if (!enabled || !Files.isRegularFile(path))
+			return Optional.empty();
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+				log.warn("Ignoring act snapshot {}: not a version {} snapshot", path, VERSION);
+				return Optional.empty();
+			}
+			buffer.getLong(); // written at
+			long watermark = buffer.getLong();
+			int count = buffer.getInt();
+			long length = buffer.getLong();
+			long checksum = buffer.getLong();
+			if (length != buffer.remaining()) {
+				log.warn("Ignoring act snapshot {}: expected {} payload bytes, found {}", path, length, buffer.remaining());
+				return Optional.empty();
+			}
+
+			CRC32 crc = new CRC32();
+			crc.update(buffer.duplicate());
+			if (crc.getValue() != checksum) {
+				log.warn("Ignoring act snapshot {}: checksum mismatch", path);
+				return Optional.empty();
+			}
+
+			List<Act> acts = new ArrayList<>(count);
+			for (int i = 0; i < count; i++)
+				acts.add(read(buffer));
+			return Optional.of(new Contents(acts, watermark < 0 ? null : Instant.ofEpochMilli(watermark)));
+		} catch (IOException | RuntimeException ex) {
+			log.warn("Ignoring unreadable act snapshot {}", path, ex);
+			return Optional.empty();
+		}
+	}
+
+	// Writes the acts table when an act changed since the last write; the file is replaced atomically
+	@Scheduled(initialDelayString = "${acts.snapshot.interval-ms:600000}", fixedDelayString = "${acts.snapshot.interval-ms:600000}")
+	public void writeIfChanged() {
+		if (!enabled)
+			return;
+
+		synchronized (this) {
+			if (!dirty)
+				return;
+			dirty = false;
+		}
+
+		try {
+			long start = System.nanoTime();
+			int count = write();
+			log.info("Wrote act snapshot of {} acts to {} in {} ms", count, path, (System.nanoTime() - start) / 1_000_000);
+		} catch (IOException | RuntimeException ex) {
+			synchronized (this) {
+				dirty = true;
+			}
+			log.warn("Could not write act snapshot {}", path, ex);
+		}
+	}
+
+	// A replacement instance started during a rolling deploy then has little to catch up on
+	@PreDestroy
+	public void close() {
+		writeIfChanged();
+	}
+
+	// Streams the payload after a zeroed header, then fills the header in once the count, length and CRC are known
+	private int write() throws IOException {
+		Path absolute = path.toAbsolutePath();
+		Files.createDirectories(absolute.getParent());
+		Path temp = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+		int[] count = new int[1];
+		long[] watermark = { -1 };
+		try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			channel.write(ByteBuffer.allocate(HEADER_BYTES));
+			CheckedOutputStream checked = new CheckedOutputStream(
+					new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024), new CRC32());
+			DataOutputStream payload = new DataOutputStream(checked);
+			try {
+				transaction.executeWithoutResult(status -> {
+					try (Stream<Act> acts = repo.streamAfter(0)) {
+						acts.forEach(act -> {
+							watermark[0] = Math.max(watermark[0], write(payload, act));
+							count[0]++;
+							entityManager.detach(act);
+						});
+					}
+				});
+			} catch (UncheckedIOException ex) {
+				throw ex.getCause();
+			}
+			payload.flush();
+
+			ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+					.putInt(MAGIC)
+					.putInt(VERSION)
+					.putLong(System.currentTimeMillis())
+					.putLong(watermark[0])
+					.putInt(count[0])
+					.putLong(channel.size() - HEADER_BYTES)
+					.putLong(checked.getChecksum().getValue())
+					.flip();
+			long position = 0;
+			while (header.hasRemaining())
+				position += channel.write(header, position);
+			channel.force(true);
+		}
+		Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		return count[0];
+	}
+
+	// Returns the act's modified-at millis
+	private static long write(DataOutputStream payload, Act act) {
+		try {
+			long modifiedAt = millis(act);
+			payload.writeInt(act.getId());
+			payload.writeInt(act.getYear());
+			payload.writeLong(modifiedAt);
+			writeString(payload, act.getTitle());
+			writeString(payload, act.getCategory());
+			writeString(payload, act.getSummary());
+			writeString(payload, act.getKeyProvisions());
+			writeString(payload, act.getApplicability());
+			writeString(payload, act.getRelatedLaws());
+			writeString(payload, act.getTags());
+			return modifiedAt;
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	private static Act read(ByteBuffer buffer) {
+		Act act = new Act();
+		act.setId(buffer.getInt());
+		act.setYear(buffer.getInt());
+		long modifiedAt = buffer.getLong();
+		act.setModifiedAt(modifiedAt < 0 ? null : Instant.ofEpochMilli(modifiedAt));
+		act.setTitle(readString(buffer));
+		act.setCategory(readString(buffer));
+		act.setSummary(readString(buffer));
+		act.setKeyProvisions(readString(buffer));
+		act.setApplicability(readString(buffer));
+		act.setRelatedLaws(readString(buffer));
+		act.setTags(readString(buffer));
+		return act;
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		if (value == null) {
+			out.writeInt(-1);
+			return;
+		}
+		byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(utf8.length);
+		out.write(utf8);
+	}
+
+	private static String readString(ByteBuffer buffer) {
+		int length = buffer.getInt();
+		if (length < 0)
+			return null;
+		byte[] utf8 = new byte[length];
+		buffer.get(utf8);
+		return new String(utf8, StandardCharsets.UTF_8);
+	}
+
+	private static long millis(Act act) {
+		return act.getModifiedAt() == null ? -1 : act.getModifiedAt().toEpochMilli();
+	}
+}
@@ -0,0 +1,367 @@
+package ptu.fsd.nyaysahayak.act_service.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.stereotype.Component;
+
+import ptu.fsd.nyaysahayak.act_service.dto.ActSuggestion;
+import ptu.fsd.nyaysahayak.act_service.model.Act;
+
+// Title typeahead: a radix trie over normalised titles and their aliases, where every node keeps the
+// top TOP_K acts of its subtree so a completion is a walk down the prefix and a copy of one small array
+@Component
+public class ActSuggestIndex implements ActIndex {
+
+	public static final int TOP_K = 10;
+
+	private static final int[] EMPTY = new int[0];
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private final Node root = new Node(new char[0]);
+	private final Map<Integer, Entry> entries = new HashMap<>();
+
+	// Ranking weight per act id, as last set by reweight(); acts without one weigh 0
+	private volatile Map<Integer, Long> weights = Map.of();
+
+	@Override
+	public void rebuild(Collection<Act> acts) {
+		lock.writeLock().lock();
+		try {
+			root.children = new Node[0];
+			root.terminals = EMPTY;
+			root.top = EMPTY;
+			entries.clear();
+			for (Act act : acts) {
+				Entry entry = new Entry(act.getTitle(), keys(act.getTitle()), weight(act.getId()));
+				entries.put(act.getId(), entry);
+				for (String key : entry.keys)
+					insert(root, key.toCharArray(), 0, act.getId(), null);
+			}
+			recomputeAll(root);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void put(Act act) {
+		lock.writeLock().lock();
+		try {
+			delete(act.getId());
+			Entry entry = new Entry(act.getTitle(), keys(act.getTitle()), weight(act.getId()));
+			entries.put(act.getId(), entry);
+			for (String key : entry.keys) {
+				List<Node> path = new ArrayList<>();
+				insert(root, key.toCharArray(), 0, act.getId(), path);
+				recomputePath(path);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void remove(int actId) {
+		lock.writeLock().lock();
+		try {
+			delete(actId);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	// Up to `limit` (at most TOP_K) acts whose title or alias has a word starting with the prefix, most popular first
+	public List<ActSuggestion> suggest(String prefix, int limit) {
+		char[] key = ActText.normalize(prefix).toCharArray();
+		List<ActSuggestion> suggestions = new ArrayList<>();
+		if (key.length == 0)
+			return suggestions;
+
+		lock.readLock().lock();
+		try {
+			Node node = find(key);
+			if (node == null)
+				return suggestions;
+			for (int i = 0; i < node.top.length && i < limit; i++)
+				suggestions.add(new ActSuggestion(node.top[i], entries.get(node.top[i]).title));
+			return suggestions;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	// Replaces the ranking weights, the acts' view counts (see ActViews), and reranks if any changed
+	public void reweight(Map<Integer, Long> weights) {
+		lock.writeLock().lock();
+		try {
+			this.weights = Map.copyOf(weights);
+			boolean changed = false;
+			for (Map.Entry<Integer, Entry> e : entries.entrySet()) {
+				long weight = weight(e.getKey());
+				if (e.getValue().weight != weight) {
+					e.getValue().weight = weight;
+					changed = true;
+				}
+			}
+			if (changed)
+				recomputeAll(root);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private long weight(int actId) {
+		return weights.getOrDefault(actId, 0L);
+	}
+
+	// Normalised title, the title without a leading "the", every later word start, and the acronym ("bns")
+	static Set<String> keys(String title) {
+		Set<String> keys = new LinkedHashSet<>();
+		String normalized = ActText.normalize(title);
+		if (normalized.isEmpty())
+			return keys;
+		keys.add(normalized);
+
+		String[] words = normalized.split(" ");
+		StringBuilder acronym = new StringBuilder();
+		for (int i = 0; i < words.length; i++) {
+			if (ActText.isStopWord(words[i]))
+				continue;
+			if (i > 0)
+				keys.add(String.join(" ", Arrays.copyOfRange(words, i, words.length)));
+			if (Character.isLetter(words[i].charAt(0)))
+				acronym.append(words[i].charAt(0));
+		}
+		if (acronym.length() >= 2)
+			keys.add(acronym.toString());
+		return keys;
+	}
+
+	private Node find(char[] key) {
+		Node node = root;
+		int pos = 0;
+		while (pos < key.length) {
+			Node child = node.child(key[pos]);
+			if (child == null)
+				return null;
+			int common = commonPrefix(child.edge, key, pos);
+			if (pos + common == key.length)
+				return child;
+			if (common < child.edge.length)
+				return null;
+			node = child;
+			pos += common;
+		}
+		return node;
+	}
+
+	// Adds the act under the key, splitting an edge where the key diverges; collects the visited nodes when path is given
+	private static void insert(Node node, char[] key, int pos, int actId, List<Node> path) {
+		while (true) {
+			if (path != null)
+				path.add(node);
+			if (pos == key.length) {
+				node.terminals = append(node.terminals, actId);
+				return;
+			}
+
+			Node child = node.child(key[pos]);
+			if (child == null) {
+				Node leaf = new Node(Arrays.copyOfRange(key, pos, key.length));
+				leaf.terminals = new int[] { actId };
+				node.addChild(leaf);
+				if (path != null)
+					path.add(leaf);
+				return;
+			}
+
+			int common = commonPrefix(child.edge, key, pos);
+			if (common < child.edge.length) {
+				Node split = new Node(Arrays.copyOf(child.edge, common));
+				node.replaceChild(split);
+				child.edge = Arrays.copyOfRange(child.edge, common, child.edge.length);
+				split.addChild(child);
+				split.top = child.top;
+				child = split;
+			}
+			node = child;
+			pos += common;
+		}
+	}
+
+	private void delete(int actId) {
+		Entry entry = entries.remove(actId);
+		if (entry == null)
+			return;
+
+		for (String key : entry.keys) {
+			char[] chars = key.toCharArray();
+			List<Node> path = new ArrayList<>();
+			Node node = root;
+			int pos = 0;
+			path.add(node);
+			while (node != null && pos < chars.length) {
+				Node child = node.child(chars[pos]);
+				if (child == null || commonPrefix(child.edge, chars, pos) < child.edge.length) {
+					node = null;
+					break;
+				}
+				node = child;
+				pos += child.edge.length;
+				path.add(node);
+			}
+			if (node == null)
+				continue;
+
+			node.terminals = without(node.terminals, actId);
+			// Drop nodes left without acts from the bottom of the path
+			for (int i = path.size() - 1; i > 0; i--) {
+				Node n = path.get(i);
+				if (n.terminals.length == 0 && n.children.length == 0)
+					path.get(i - 1).removeChild(n);
+			}
+			recomputePath(path);
+		}
+	}
+
+	private void recomputePath(List<Node> path) {
+		for (int i = path.size() - 1; i >= 0; i--)
+			recompute(path.get(i));
+	}
+
+	private void recomputeAll(Node node) {
+		for (Node child : node.children)
+			recomputeAll(child);
+		recompute(node);
+	}
+
+	// Merges the node's own acts and its children's top lists into its top list; an act being deleted
+	// stays under its other keys until those are removed too, so ids without an entry are skipped
+	private void recompute(Node node) {
+		Set<Integer> candidates = new LinkedHashSet<>();
+		for (int id : node.terminals)
+			if (entries.containsKey(id))
+				candidates.add(id);
+		for (Node child : node.children)
+			for (int id : child.top)
+				if (entries.containsKey(id))
+					candidates.add(id);
+
+		node.top = candidates.stream()
+				.sorted((a, b) -> compare(entries.get(a), entries.get(b), a, b))
+				.limit(TOP_K)
+				.mapToInt(Integer::intValue)
+				.toArray();
+	}
+
+	// Heavier first, then shorter title, then lower id
+	private static int compare(Entry a, Entry b, int idA, int idB) {
+		if (a.weight != b.weight)
+			return Long.compare(b.weight, a.weight);
+		if (a.titleLength() != b.titleLength())
+			return Integer.compare(a.titleLength(), b.titleLength());
+		return Integer.compare(idA, idB);
+	}
+
+	private static int commonPrefix(char[] edge, char[] key, int pos) {
+		int i = 0;
+		while (i < edge.length && pos + i < key.length && edge[i] == key[pos + i])
+			i++;
+		return i;
+	}
+
+	private static int[] append(int[] ids, int id) {
+		for (int existing : ids)
+			if (existing == id)
+				return ids;
+		int[] result = Arrays.copyOf(ids, ids.length + 1);
+		result[ids.length] = id;
+		return result;
+	}
+
+	private static int[] without(int[] ids, int id) {
+		return Arrays.stream(ids).filter(existing -> existing != id).toArray();
+	}
+
+	private static final class Entry {
+		final String title;
+		final Set<String> keys;
+		long weight;
+
+		Entry(String title, Set<String> keys, long weight) {
+			this.title = title;
+			this.keys = keys;
+			this.weight = weight;
+		}
+
+		int titleLength() {
+			return title == null ? 0 : title.length();
+		}
+	}
+
+	// Children are kept sorted by the first character of their edge
+	private static final class Node {
+		char[] edge;
+		Node[] children = new Node[0];
+		int[] terminals = EMPTY;
+		int[] top = EMPTY;
+
+		Node(char[] edge) {
+			this.edge = edge;
+		}
+
+		Node child(char first) {
+			int i = indexOf(first);
+			return i >= 0 ? children[i] : null;
+		}
+
+		void addChild(Node child) {
+			int i = -indexOf(child.edge[0]) - 1;
+			Node[] result = new Node[children.length + 1];
+			System.arraycopy(children, 0, result, 0, i);
+			result[i] = child;
+			System.arraycopy(children, i, result, i + 1, children.length - i);
+			children = result;
+		}
+
+		// Puts the child in place of the existing child whose edge starts with the same character
+		void replaceChild(Node child) {
+			children[indexOf(child.edge[0])] = child;
+		}
+
+		void removeChild(Node child) {
+			int i = indexOf(child.edge[0]);
+			if (i < 0 || children[i] != child)
+				return;
+			Node[] result = new Node[children.length - 1];
+			System.arraycopy(children, 0, result, 0, i);
+			System.arraycopy(children, i + 1, result, i, children.length - i - 1);
+			children = result;
+		}
+
+		private int indexOf(char first) {
+			int low = 0;
+			int high = children.length - 1;
+			while (low <= high) {
+				int mid = (low + high) >>> 1;
+				char c = children[mid].edge[0];
+				if (c < first)
+					low = mid + 1;
+				else if (c > first)
+					high = mid - 1;
+				else
+					return mid;
+			}
+			return -(low + 1);
+		}
+	}
+}
@@ -0,0 +1,203 @@
+package ptu.fsd.nyaysahayak.act_service.index;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Component;
+
+import ptu.fsd.nyaysahayak.act_service.dto.ActTagCount;
+import ptu.fsd.nyaysahayak.act_service.model.Act;
+
+// Normalised tags of every act, each mapped to a dense integer id with a compressed bitmap of the acts carrying it
+@Component
+public class ActTagDictionary implements ActIndex {
+
+	private static final int[] NO_TAGS = new int[0];
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	// A tag whose last act goes away gives up its id, which the next new tag takes, so ids stay dense;
+	// a freed id has a null name and an empty bitmap until then. A rebuild numbers the tags afresh.
+	private final Map<String, Integer> ids = new HashMap<>();
+	private final List<String> names = new ArrayList<>();
+	private final List<RoaringBitmap> postings = new ArrayList<>();
+	private final Deque<Integer> freeIds = new ArrayDeque<>();
+	private final Map<Integer, int[]> actTags = new HashMap<>();
+
+	@Override
+	public void rebuild(Collection<Act> acts) {
+		lock.writeLock().lock();
+		try {
+			ids.clear();
+			names.clear();
+			postings.clear();
+			freeIds.clear();
+			actTags.clear();
+			for (Act act : acts)
+				add(act);
+			for (RoaringBitmap bitmap : postings)
+				bitmap.runOptimize();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void put(Act act) {
+		lock.writeLock().lock();
+		try {
+			delete(act.getId());
+			add(act);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void remove(int actId) {
+		lock.writeLock().lock();
+		try {
+			delete(actId);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	// Acts carrying every one of the tags
+	public RoaringBitmap all(Collection<String> tags) {
+		lock.readLock().lock();
+		try {
+			RoaringBitmap result = null;
+			for (String tag : tags) {
+				RoaringBitmap bitmap = bitmap(tag);
+				if (bitmap == null)
+					return new RoaringBitmap();
+				result = result == null ? bitmap.clone() : RoaringBitmap.and(result, bitmap);
+			}
+			return result == null ? new RoaringBitmap() : result;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	// Acts carrying at least one of the tags
+	public RoaringBitmap any(Collection<String> tags) {
+		lock.readLock().lock();
+		try {
+			List<RoaringBitmap> bitmaps = new ArrayList<>();
+			for (String tag : tags) {
+				RoaringBitmap bitmap = bitmap(tag);
+				if (bitmap != null)
+					bitmaps.add(bitmap);
+			}
+			return RoaringBitmap.or(bitmaps.iterator());
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	// Every tag in use with the number of acts carrying it, most frequent first
+	public List<ActTagCount> tags(int limit) {
+		lock.readLock().lock();
+		try {
+			List<ActTagCount> counts = new ArrayList<>();
+			for (int id = 0; id < names.size(); id++) {
+				int count = postings.get(id).getCardinality();
+				if (count > 0)
+					counts.add(new ActTagCount(names.get(id), count));
+			}
+			counts.sort((a, b) -> a.getCount() != b.getCount() ? Integer.compare(b.getCount(), a.getCount())
+					: a.getTag().compareTo(b.getTag()));
+			return counts.size() > limit ? new ArrayList<>(counts.subList(0, limit)) : counts;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	// Tag counts over the given acts, in one pass with a counter per tag id
+	public Map<String, Integer> countTags(RoaringBitmap acts) {
+		lock.readLock().lock();
+		try {
+			int[] counts = new int[names.size()];
+			IntIterator it = acts.getIntIterator();
+			while (it.hasNext()) {
+				for (int tagId : actTags.getOrDefault(it.next(), NO_TAGS))
+					counts[tagId]++;
+			}
+
+			Map<String, Integer> result = new HashMap<>();
+			for (int id = 0; id < counts.length; id++) {
+				if (counts[id] > 0)
+					result.put(names.get(id), counts[id]);
+			}
+			return result;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private RoaringBitmap bitmap(String tag) {
+		String key = ActText.key(tag);
+		Integer id = key == null ? null : ids.get(key);
+		return id == null ? null : postings.get(id);
+	}
+
+	private void add(Act act) {
+		List<String> tags = ActText.tags(act.getTags());
+		if (tags.isEmpty())
+			return;
+
+		int[] tagIds = new int[tags.size()];
+		for (int i = 0; i < tagIds.length; i++) {
+			String tag = tags.get(i);
+			Integer id = ids.get(tag);
+			if (id == null) {
+				id = freeIds.poll();
+				if (id == null) {
+					id = names.size();
+					names.add(tag);
+					postings.add(new RoaringBitmap());
+				} else {
+					names.set(id, tag);
+				}
+				ids.put(tag, id);
+			}
+			tagIds[i] = id;
+			postings.get(id).add(act.getId());
+		}
+		actTags.put(act.getId(), tagIds);
+	}
+
+	private void delete(int actId) {
+		int[] tagIds = actTags.remove(actId);
+		if (tagIds == null)
+			return;
+		for (int id : tagIds) {
+			RoaringBitmap bitmap = postings.get(id);
+			if (bitmap.checkedRemove(actId) && bitmap.isEmpty()) {
+				ids.remove(names.get(id));
+				names.set(id, null);
+				freeIds.push(id);
+			}
+		}
+	}
+
+	// Ids handed out so far, in use or free; bounded by the most distinct tags ever in use at once
+	int idCount() {
+		lock.readLock().lock();
+		try {
+			return names.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+}
@@ -0,0 +1,89 @@
+package ptu.fsd.nyaysahayak.act_service.index;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+// Text normalisation shared by the act indexes
+public final class ActText {
+
+	private static final Set<String> STOP_WORDS = Set.of(
+			"a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "into",
+			"is", "it", "of", "on", "or", "that", "the", "to", "under", "with");
+
+	private ActText() {
+	}
+
+	// Lower-cased alphanumeric tokens with stop words removed and a light plural stemming
+	public static List<String> terms(String text) {
+		List<String> terms = new ArrayList<>();
+		if (text == null || text.isEmpty())
+			return terms;
+
+		StringBuilder token = new StringBuilder();
+		for (int i = 0; i <= text.length(); i++) {
+			char c = i < text.length() ? text.charAt(i) : ' ';
+			if (Character.isLetterOrDigit(c)) {
+				token.append(Character.toLowerCase(c));
+			} else if (token.length() > 0) {
+				String term = stem(token.toString());
+				if (!STOP_WORDS.contains(term))
+					terms.add(term);
+				token.setLength(0);
+			}
+		}
+		return terms;
+	}
+
+	// Lower-cased alphanumeric words separated by single spaces, with nothing removed
+	public static String normalize(String text) {
+		if (text == null)
+			return "";
+		StringBuilder out = new StringBuilder(text.length());
+		boolean space = false;
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (Character.isLetterOrDigit(c)) {
+				if (space && out.length() > 0)
+					out.append(' ');
+				out.append(Character.toLowerCase(c));
+				space = false;
+			} else {
+				space = true;
+			}
+		}
+		return out.toString();
+	}
+
+	public static boolean isStopWord(String word) {
+		return STOP_WORDS.contains(word);
+	}
+
+	// Facet key of a category: trimmed and lower-cased, null when blank
+	public static String key(String value) {
+		if (value == null || value.isBlank())
+			return null;
+		return value.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+	}
+
+	// Distinct facet keys of the comma-separated tags column
+	public static List<String> tags(String tags) {
+		Set<String> keys = new LinkedHashSet<>();
+		if (tags != null) {
+			for (String tag : tags.split(",")) {
+				String key = key(tag);
+				if (key != null)
+					keys.add(key);
+			}
+		}
+		return new ArrayList<>(keys);
+	}
+
+	private static String stem(String token) {
+		if (token.length() > 4 && token.endsWith("s") && !token.endsWith("ss"))
+			return token.substring(0, token.length() - 1);
+		return token;
+	}
+}
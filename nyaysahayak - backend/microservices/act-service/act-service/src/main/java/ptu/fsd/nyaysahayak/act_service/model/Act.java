@@ -1,12 +1,19 @@
 package ptu.fsd.nyaysahayak.act_service.model;
 
+import java.time.Instant;
+
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.UpdateTimestamp;
+
 import io.micrometer.common.lang.Nullable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.Data;
 
 @Entity
@@ -14,8 +21,10 @@ import lombok.Data;
 @Table(name="Acts")
 public class Act {
 
+	// Sequence ids (allocated 50 at a time) let Hibernate batch inserts, which IDENTITY prevents
 	@Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "acts_seq")
+    @SequenceGenerator(name = "acts_seq", sequenceName = "acts_seq", allocationSize = 50)
     private int id;
 
     private String title;                 
@@ -53,4 +62,13 @@ public class Act {
 
     @Column(length = 500)
     private String tags;      
+
+    // Set by Hibernate on every insert and update, so an instance started from an index snapshot can fetch what changed since
+    @UpdateTimestamp
+    private Instant modifiedAt;
+
+    // Optimistic lock for conditional updates; existing rows start at 0 when the column is added
+    @Version
+    @ColumnDefault("0")
+    private long version;
 }
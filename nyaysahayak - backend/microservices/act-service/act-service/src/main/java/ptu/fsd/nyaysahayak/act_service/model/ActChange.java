@@ -0,0 +1,45 @@
+package ptu.fsd.nyaysahayak.act_service.model;
+
+import java.time.Instant;
+
+import org.hibernate.annotations.ColumnDefault;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+// Outbox row recording that an act was written, with the columns other services copy from it, or deleted
+@Entity
+@Data
+@Table(name = "ActChanges")
+public class ActChange {
+
+	// Assigned by the database at insert, so every act-service instance writes into one increasing sequence
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private long id;
+
+	private int actId;
+
+	@Column(length = 1000)
+	private String title;
+
+	@Column(length = 2000)
+	private String summary;
+
+	@Column(length = 2000)
+	private String impact;
+
+	@Column(length = 2000)
+	private String penalties;
+
+	private Instant changedAt;
+
+	// The act was deleted; the copied columns are null. Existing rows are writes when the column is added
+	@ColumnDefault("false")
+	private boolean deleted;
+}
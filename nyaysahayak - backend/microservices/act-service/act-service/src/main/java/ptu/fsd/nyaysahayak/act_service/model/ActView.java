@@ -0,0 +1,18 @@
+package ptu.fsd.nyaysahayak.act_service.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+// Detail views of an act by users, added up over every act-service instance; weights the title typeahead
+@Entity
+@Data
+@Table(name = "ActViews")
+public class ActView {
+
+	@Id
+	private int actId;
+
+	private long views;
+}
@@ -0,0 +1,28 @@
+package ptu.fsd.nyaysahayak.act_service.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import ptu.fsd.nyaysahayak.act_service.model.ActChange;
+
+public interface ActChangeRepo extends JpaRepository<ActChange, Long> {
+
+	// Committed changes after the given id; ActOutbox commits them in id order
+	@Query(value = "select * from act_changes where id > :after order by id limit :limit", nativeQuery = true)
+	List<ActChange> findAfter(@Param("after") long after, @Param("limit") int limit);
+
+	// Highest committed id, below which no change can still appear
+	@Query(value = "select coalesce(max(id), 0) from act_changes", nativeQuery = true)
+	long findPosition();
+
+	@Modifying
+	@Transactional
+	@Query(value = "delete from act_changes where changed_at < clock_timestamp() - make_interval(hours => :hours)",
+			nativeQuery = true)
+	int deleteOlderThan(@Param("hours") int hours);
+}
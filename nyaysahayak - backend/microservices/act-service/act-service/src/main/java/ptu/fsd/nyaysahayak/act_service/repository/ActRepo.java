@@ -1,9 +1,54 @@
 package ptu.fsd.nyaysahayak.act_service.repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import jakarta.persistence.QueryHint;
 
+import ptu.fsd.nyaysahayak.act_service.dto.ActCard;
 import ptu.fsd.nyaysahayak.act_service.model.Act;
 
-public interface ActRepo extends JpaRepository<Act, Integer> {
+public interface ActRepo extends JpaRepository<Act, Integer>, ActRepoCustom {
+
+	// Keyset page of cards after the given id; only the card columns are selected
+	@Query("select new ptu.fsd.nyaysahayak.act_service.dto.ActCard(a.id, a.title, a.category, a.year, a.summary, a.tags) "
+			+ "from Act a where a.id > :after order by a.id")
+	List<ActCard> findCardsAfter(@Param("after") int after, Limit limit);
+
+	@Query("select new ptu.fsd.nyaysahayak.act_service.dto.ActCard(a.id, a.title, a.category, a.year, a.summary, a.tags) "
+			+ "from Act a where a.id in :ids")
+	List<ActCard> findCardsByIds(@Param("ids") Collection<Integer> ids);
+
+	// (id, version) pairs of the acts that exist among the ids
+	@Query("select a.id, a.version from Act a where a.id in :ids")
+	List<Object[]> findVersions(@Param("ids") Collection<Integer> ids);
+
+	// Acts written after the given time, to catch up from an index snapshot
+	List<Act> findByModifiedAtAfter(Instant after);
+
+	@Query("select a.id from Act a")
+	List<Integer> findAllIds();
+
+	// One DELETE reporting whether the act existed, so a concurrent delete of the same act is not recorded twice
+	@Modifying
+	@Query("delete from Act a where a.id = :id")
+	int deleteActById(@Param("id") int id);
 
+	// Server-side cursor over the acts after the given id; must be consumed inside a transaction and closed
+	@QueryHints({
+			@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+			@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+	@Query("select a from Act a where a.id > :after order by a.id")
+	Stream<Act> streamAfter(@Param("after") int after);
 }
@@ -0,0 +1,13 @@
+package ptu.fsd.nyaysahayak.act_service.repository;
+
+import java.util.Map;
+import java.util.Optional;
+
+import ptu.fsd.nyaysahayak.act_service.model.Act;
+
+public interface ActRepoCustom {
+
+	// Sets the given columns of one act with a single UPDATE ... RETURNING, provided its version still equals
+	// expectedVersion (any version when null); empty when no row matched
+	Optional<Act> patch(int id, Long expectedVersion, Map<String, Object> columns);
+}
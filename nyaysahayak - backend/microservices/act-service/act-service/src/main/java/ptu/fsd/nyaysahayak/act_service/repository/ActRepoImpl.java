@@ -0,0 +1,48 @@
+package ptu.fsd.nyaysahayak.act_service.repository;
+
+import java.util.Map;
+import java.util.Optional;
+
+import org.hibernate.Session;
+import org.hibernate.query.NativeQuery;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import ptu.fsd.nyaysahayak.act_service.model.Act;
+
+public class ActRepoImpl implements ActRepoCustom {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	// Column names come from the whitelist in ActService, never from the request; values are bound parameters.
+	// The version and modification time are maintained here because neither @Version nor @UpdateTimestamp
+	// applies to native statements.
+	@Override
+	@Transactional
+	public Optional<Act> patch(int id, Long expectedVersion, Map<String, Object> columns) {
+		StringBuilder sql = new StringBuilder("update acts set ");
+		for (String column : columns.keySet())
+			sql.append(column).append(" = :").append(column).append(", ");
+		sql.append("version = version + 1, modified_at = current_timestamp where id = :id");
+		if (expectedVersion != null)
+			sql.append(" and version = :version");
+		sql.append(" returning *");
+
+		NativeQuery<Act> query = entityManager.unwrap(Session.class).createNativeQuery(sql.toString(), Act.class);
+		for (Map.Entry<String, Object> e : columns.entrySet())
+			bind(query, e.getKey(), e.getValue());
+		query.setParameter("id", id);
+		if (expectedVersion != null)
+			query.setParameter("version", expectedVersion);
+		return query.getResultList().stream().findFirst();
+	}
+
+	// A null needs its type spelled out, otherwise the driver cannot tell which type it is setting
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static void bind(NativeQuery<Act> query, String name, Object value) {
+		Class type = value != null ? value.getClass() : "year".equals(name) ? Integer.class : String.class;
+		query.setParameter(name, value, type);
+	}
+}
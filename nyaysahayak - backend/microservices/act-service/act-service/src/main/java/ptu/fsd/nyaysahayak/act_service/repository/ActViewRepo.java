@@ -0,0 +1,8 @@
+package ptu.fsd.nyaysahayak.act_service.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import ptu.fsd.nyaysahayak.act_service.model.ActView;
+
+public interface ActViewRepo extends JpaRepository<ActView, Integer> {
+}
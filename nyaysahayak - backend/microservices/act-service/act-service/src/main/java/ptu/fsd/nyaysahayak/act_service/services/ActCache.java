@@ -0,0 +1,99 @@
+package ptu.fsd.nyaysahayak.act_service.services;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import ptu.fsd.nyaysahayak.act_service.model.Act;
+
+// Read-through cache of acts by id (Caffeine, W-TinyLFU) with a negative cache for unknown ids. Writes on any
+// instance evict their acts through ActChangeFollower; the ttl bounds how long an entry can outlive a missed change.
+@Component
+public class ActCache {
+
+	private final Cache<Integer, Act> acts;
+	private final Cache<Integer, Boolean> missing;
+
+	public ActCache(MeterRegistry registry,
+			@Value("${acts.cache.max-bytes:67108864}") long maxBytes,
+			@Value("${acts.cache.ttl-seconds:600}") long ttlSeconds,
+			@Value("${acts.cache.missing-ttl-seconds:60}") long missingTtlSeconds) {
+		this.acts = Caffeine.newBuilder()
+				.maximumWeight(maxBytes)
+				.weigher((Integer id, Act act) -> weigh(act))
+				.expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+				.recordStats()
+				.build();
+		this.missing = Caffeine.newBuilder()
+				.maximumSize(10_000)
+				.expireAfterWrite(Duration.ofSeconds(missingTtlSeconds))
+				.recordStats()
+				.build();
+		CaffeineCacheMetrics.monitor(registry, acts, "acts");
+		CaffeineCacheMetrics.monitor(registry, missing, "acts.missing");
+	}
+
+	// Concurrent misses for the same id share a single load
+	public Optional<Act> get(int id, Function<Integer, Optional<Act>> loader) {
+		if (missing.getIfPresent(id) != null)
+			return Optional.empty();
+
+		Act act = acts.get(id, key -> loader.apply(key).orElse(null));
+		if (act == null)
+			missing.put(id, Boolean.TRUE);
+		return Optional.ofNullable(act);
+	}
+
+	// Cached acts for the ids; the misses are fetched together with a single call to the loader
+	public Map<Integer, Act> getAll(Collection<Integer> ids, Function<Set<Integer>, Map<Integer, Act>> loader) {
+		List<Integer> candidates = new ArrayList<>(ids.size());
+		for (Integer id : ids) {
+			if (missing.getIfPresent(id) == null)
+				candidates.add(id);
+		}
+
+		Map<Integer, Act> found = new HashMap<>(acts.getAll(candidates, keys -> loader.apply(Set.copyOf(keys))));
+		for (Integer id : candidates) {
+			if (!found.containsKey(id))
+				missing.put(id, Boolean.TRUE);
+		}
+		return found;
+	}
+
+	public void invalidate(int id) {
+		acts.invalidate(id);
+		missing.invalidate(id);
+	}
+
+	public void invalidateAll(Collection<Integer> ids) {
+		acts.invalidateAll(ids);
+		missing.invalidateAll(ids);
+	}
+
+	// Approximate heap footprint: object overhead plus two bytes per character of every text column
+	private static int weigh(Act act) {
+		long chars = length(act.getTitle()) + length(act.getCategory()) + length(act.getSummary())
+				+ length(act.getEnactmentDate()) + length(act.getEffectiveDate()) + length(act.getKeyProvisions())
+				+ length(act.getAuthoritiesInvolved()) + length(act.getApplicability()) + length(act.getPenalties())
+				+ length(act.getImpact()) + length(act.getRelatedLaws()) + length(act.getTags());
+		return (int) Math.min(Integer.MAX_VALUE, 256 + chars * 2);
+	}
+
+	private static int length(String s) {
+		return s == null ? 0 : s.length();
+	}
+}
@@ -0,0 +1,63 @@
+package ptu.fsd.nyaysahayak.act_service.services;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+// Revision of the act corpus, used to build ETags for read endpoints. It is the id of the last outbox change this
+// instance has applied (ActChangeFollower), which every instance reads from the one act_changes sequence, so all
+// instances agree on it once they have followed the same changes. A write made here is served before the follower
+// reaches its change; until then the revision also names this instance and its local writes. An act written here
+// more than once stays unfollowed until the follower reaches the last of its changes.
+@Component
+public class ActCatalogRevision {
+
+	// Tells the local writes of different instances and process lifetimes apart
+	private final String instance = UUID.randomUUID().toString().substring(0, 8);
+
+	private long position;
+	private long localWrites;
+	// Highest outbox id of each act written here that the follower has not reached yet
+	private final Map<Integer, Long> unfollowed = new HashMap<>();
+	private long lastModified = System.currentTimeMillis();
+
+	// Called after a write committed here; actIds are the acts written and changeId the last outbox id it recorded
+	public synchronized void bump(Collection<Integer> actIds, long changeId) {
+		localWrites++;
+		for (Integer actId : actIds)
+			unfollowed.merge(actId, changeId, Math::max);
+		lastModified = System.currentTimeMillis();
+	}
+
+	// Called once the follower has applied the changes up to outbox id `position`
+	public synchronized void advance(long position, long changedAt) {
+		if (position <= this.position)
+			return;
+		this.position = position;
+		unfollowed.values().removeIf(changeId -> changeId <= position);
+		lastModified = Math.max(lastModified, changedAt);
+	}
+
+	public synchronized long position() {
+		return position;
+	}
+
+	public synchronized long lastModified() {
+		return lastModified;
+	}
+
+	// Strong ETag for one representation (endpoint and parameters) at the current revision
+	public String etag(String variant) {
+		String hash = DigestUtils.md5DigestAsHex(variant.getBytes(StandardCharsets.UTF_8));
+		synchronized (this) {
+			if (unfollowed.isEmpty())
+				return "\"" + position + "-" + hash + "\"";
+			return "\"" + position + "-" + instance + "." + localWrites + "-" + hash + "\"";
+		}
+	}
+}
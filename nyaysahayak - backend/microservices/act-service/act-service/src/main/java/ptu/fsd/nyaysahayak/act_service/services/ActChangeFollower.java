@@ -0,0 +1,95 @@
+package ptu.fsd.nyaysahayak.act_service.services;
+
+import java.time.Instant;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import ptu.fsd.nyaysahayak.act_service.index.ActIndexer;
+import ptu.fsd.nyaysahayak.act_service.model.Act;
+import ptu.fsd.nyaysahayak.act_service.model.ActChange;
+import ptu.fsd.nyaysahayak.act_service.repository.ActRepo;
+
+// Applies the writes of every act-service instance to this one by polling the act outbox: the changed acts are
+// dropped from the cache, reloaded and reindexed (or removed when gone), and the catalog revision moves to the
+// last change applied. Writes made here are applied once more when their change comes round, which is harmless.
+@Component
+public class ActChangeFollower {
+
+	private static final Logger log = LoggerFactory.getLogger(ActChangeFollower.class);
+
+	@Autowired
+	private ActOutbox outbox;
+
+	@Autowired
+	private ActRepo repo;
+
+	@Autowired
+	private ActCache cache;
+
+	@Autowired
+	private ActIndexer indexer;
+
+	@Autowired
+	private ActCatalogRevision revision;
+
+	// Taken before ActIndexer reads the acts table, so no change made during the rebuild is missed
+	@EventListener(ApplicationReadyEvent.class)
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	public void start() {
+		long position = outbox.position();
+		revision.advance(position, System.currentTimeMillis());
+		log.info("Following act changes after {}", position);
+	}
+
+	@Scheduled(fixedDelayString = "${acts.changes.follow-ms:1000}")
+	public void follow() {
+		if (!indexer.isReady())
+			return;
+		try {
+			List<ActChange> page;
+			do {
+				page = outbox.changesAfter(revision.position(), ActOutbox.MAX_CHANGES);
+				if (!page.isEmpty())
+					apply(page);
+			} while (page.size() == ActOutbox.MAX_CHANGES);
+		} catch (RuntimeException ex) {
+			// The revision did not move past the failed page, so it is applied on the next poll
+			log.warn("Could not follow act changes", ex);
+		}
+	}
+
+	private void apply(List<ActChange> page) {
+		Set<Integer> ids = new LinkedHashSet<>();
+		Instant changedAt = Instant.EPOCH;
+		for (ActChange change : page) {
+			ids.add(change.getActId());
+			if (change.getChangedAt() != null && change.getChangedAt().isAfter(changedAt))
+				changedAt = change.getChangedAt();
+		}
+
+		// Reloaded rather than taken from the changes, which carry only the columns other services copy
+		Set<Integer> gone = new LinkedHashSet<>(ids);
+		cache.invalidateAll(ids);
+		for (Act act : repo.findAllById(ids)) {
+			indexer.indexAct(act);
+			gone.remove(act.getId());
+		}
+		for (Integer id : gone)
+			indexer.removeAct(id);
+
+		long lastId = page.get(page.size() - 1).getId();
+		revision.advance(lastId, changedAt.toEpochMilli());
+		log.debug("Followed {} act changes up to {}", page.size(), lastId);
+	}
+}
@@ -0,0 +1,78 @@
+package ptu.fsd.nyaysahayak.act_service.services;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import ptu.fsd.nyaysahayak.act_service.model.Act;
+import ptu.fsd.nyaysahayak.act_service.repository.ActRepo;
+
+// Writes the act corpus as NDJSON straight from a database cursor, one act in memory at a time
+@Service
+public class ActExportService {
+
+	@Autowired
+	private ObjectMapper mapper;
+
+	@Autowired
+	private ActRepo repo;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	private final TransactionTemplate transaction;
+
+	public ActExportService(PlatformTransactionManager transactionManager) {
+		this.transaction = new TransactionTemplate(transactionManager);
+		this.transaction.setReadOnly(true);
+	}
+
+	// Exports acts with an id greater than `after`, in id order, so an interrupted export can be resumed
+	public void export(int after, boolean gzip, OutputStream out) throws IOException {
+		OutputStream target = gzip ? new GZIPOutputStream(out, 64 * 1024) : out;
+		long[] rows = new long[1];
+		try (SequenceWriter writer = mapper.writer()
+				.without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+				.withRootValueSeparator("\n")
+				.writeValues(target)) {
+			transaction.executeWithoutResult(status -> {
+				try (Stream<Act> acts = repo.streamAfter(after)) {
+					acts.forEach(act -> {
+						write(writer, act);
+						entityManager.detach(act);
+						rows[0]++;
+					});
+				}
+			});
+		} catch (UncheckedIOException ex) {
+			throw ex.getCause();
+		}
+		// The writer only separates rows, so the last one gets its newline here; an empty export stays empty
+		if (rows[0] > 0)
+			target.write('\n');
+		if (gzip)
+			((GZIPOutputStream) target).finish();
+		target.flush();
+	}
+
+	private static void write(SequenceWriter writer, Act act) {
+		try {
+			writer.write(act);
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+}
@@ -0,0 +1,218 @@
+package ptu.fsd.nyaysahayak.act_service.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.hibernate.StaleStateException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.PersistenceContext;
+import ptu.fsd.nyaysahayak.act_service.dto.ActIngestReport;
+import ptu.fsd.nyaysahayak.act_service.index.ActIndexer;
+import ptu.fsd.nyaysahayak.act_service.model.Act;
+import ptu.fsd.nyaysahayak.act_service.repository.ActRepo;
+
+// Bulk load of acts from a JSON array or NDJSON stream, parsed record by record and committed in chunks. A chunk
+// the database refuses is split in halves, each committed on its own, down to the rows it rejects.
+@Service
+public class ActIngestService {
+
+	private static final Logger log = LoggerFactory.getLogger(ActIngestService.class);
+
+	private static final int MAX_CHUNK_SIZE = 5000;
+
+	@Autowired
+	private ObjectMapper mapper;
+
+	@Autowired
+	private ActRepo repo;
+
+	@Autowired
+	private ActCache cache;
+
+	@Autowired
+	private ActIndexer indexer;
+
+	@Autowired
+	private ActCatalogRevision revision;
+
+	@Autowired
+	private ActOutbox outbox;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	private final TransactionTemplate transaction;
+
+	@Value("${acts.ingest.jdbc-batch-size:50}")
+	private int jdbcBatchSize;
+
+	public ActIngestService(PlatformTransactionManager transactionManager) {
+		this.transaction = new TransactionTemplate(transactionManager);
+	}
+
+	// A parsed record, its position in the upload and the id it came with; a failed attempt may change the act's id
+	private record Row(int row, int id, Act act) {
+	}
+
+	public ActIngestReport ingest(InputStream in, int chunkSize) {
+		int size = Math.min(Math.max(chunkSize, 1), MAX_CHUNK_SIZE);
+		ActIngestReport report = new ActIngestReport();
+		long start = System.nanoTime();
+
+		try (JsonParser parser = mapper.getFactory().createParser(in)) {
+			JsonToken first = parser.nextToken();
+			// A top-level array is streamed element by element; anything else is read as NDJSON
+			boolean array = first == JsonToken.START_ARRAY;
+			if (array)
+				parser.nextToken();
+
+			List<Row> chunk = new ArrayList<>(size);
+			int row = 0;
+			while (parser.currentToken() != null && !(array && parser.currentToken() == JsonToken.END_ARRAY)) {
+				JsonNode node = mapper.readTree(parser);
+				Act act = toAct(node, row, report);
+				if (act != null)
+					chunk.add(new Row(row, act.getId(), act));
+				row++;
+
+				if (chunk.size() == size) {
+					commit(chunk, report);
+					chunk = new ArrayList<>(size);
+				}
+				parser.nextToken();
+			}
+			if (!chunk.isEmpty())
+				commit(chunk, report);
+			report.setCompleted(true);
+		} catch (IOException | RuntimeException ex) {
+			log.warn("Act ingest stopped after {} committed chunks", report.getChunksCommitted(), ex);
+			report.setError(ex.getMessage());
+		}
+
+		report.setElapsedMs((System.nanoTime() - start) / 1_000_000);
+		return report;
+	}
+
+	private Act toAct(JsonNode node, int row, ActIngestReport report) {
+		if (node == null || !node.isObject()) {
+			report.reject(row, "Not a JSON object");
+			return null;
+		}
+		try {
+			Act act = mapper.treeToValue(node, Act.class);
+			if (act.getTitle() == null || act.getTitle().isBlank()) {
+				report.reject(row, "Missing title");
+				return null;
+			}
+			return act;
+		} catch (JsonProcessingException | IllegalArgumentException ex) {
+			report.reject(row, ex.getMessage());
+			return null;
+		}
+	}
+
+	// A chunk failing on its data is retried in halves, so only the rows the database rejects are left out;
+	// any other failure stops the ingest
+	private void commit(List<Row> chunk, ActIngestReport report) {
+		try {
+			write(chunk, report);
+		} catch (RuntimeException ex) {
+			if (!isRowError(ex))
+				throw ex;
+			if (chunk.size() == 1) {
+				report.reject(chunk.get(0).row(), reason(ex));
+				return;
+			}
+			int half = chunk.size() / 2;
+			log.debug("Act ingest: chunk of {} rows failed, retrying in halves", chunk.size(), ex);
+			commit(chunk.subList(0, half), report);
+			commit(chunk.subList(half, chunk.size()), report);
+		}
+	}
+
+	// One transaction per chunk; the existing rows are loaded with one query so merge does not select per row
+	private void write(List<Row> chunk, ActIngestReport report) {
+		int[] updated = new int[1];
+		long[] change = new long[1];
+		List<Act> saved = transaction.execute(status -> {
+			Set<Integer> ids = chunk.stream().map(Row::id).filter(id -> id > 0).collect(Collectors.toSet());
+			Map<Integer, Long> existing = repo.findAllById(ids).stream().collect(Collectors.toMap(Act::getId, Act::getVersion));
+
+			List<Act> written = new ArrayList<>(chunk.size());
+			for (Row row : chunk) {
+				Act act = row.act();
+				act.setId(row.id());
+				if (existing.containsKey(act.getId())) {
+					// An ingested row replaces the stored one, so it takes over the stored version
+					act.setVersion(existing.get(act.getId()));
+					written.add(entityManager.merge(act));
+					updated[0]++;
+				} else {
+					act.setId(0);
+					entityManager.persist(act);
+					written.add(act);
+				}
+				if (written.size() % jdbcBatchSize == 0)
+					entityManager.flush();
+			}
+			// The acts are written before the changes are recorded, which ActOutbox expects last
+			entityManager.flush();
+			change[0] = outbox.record(written);
+			entityManager.clear();
+			return written;
+		});
+
+		report.setUpdated(report.getUpdated() + updated[0]);
+		report.setAccepted(report.getAccepted() + saved.size() - updated[0]);
+		report.setChunksCommitted(report.getChunksCommitted() + 1);
+		cache.invalidateAll(saved.stream().map(Act::getId).toList());
+		indexer.indexActs(saved);
+		revision.bump(saved.stream().map(Act::getId).toList(), change[0]);
+		log.info("Act ingest: chunk {} committed ({} accepted, {} updated, {} rejected so far)",
+				report.getChunksCommitted(), report.getAccepted(), report.getUpdated(), report.getRejected());
+	}
+
+	// Refused for the data of a row (SQL states 22 and 23: invalid or over-long values, constraint violations) or
+	// because a row was changed meanwhile, rather than because the database could not be reached
+	private static boolean isRowError(Throwable ex) {
+		for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+			if (cause instanceof OptimisticLockException || cause instanceof StaleStateException)
+				return true;
+			if (cause instanceof SQLException sql && sql.getSQLState() != null
+					&& (sql.getSQLState().startsWith("22") || sql.getSQLState().startsWith("23")))
+				return true;
+		}
+		return false;
+	}
+
+	// The database's own message when there is one
+	private static String reason(Throwable ex) {
+		String reason = ex.getMessage();
+		for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+			if (cause instanceof SQLException && cause.getMessage() != null)
+				reason = cause.getMessage();
+		}
+		return reason;
+	}
+}
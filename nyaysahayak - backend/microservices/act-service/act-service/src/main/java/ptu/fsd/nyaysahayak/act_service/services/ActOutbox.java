@@ -0,0 +1,95 @@
+package ptu.fsd.nyaysahayak.act_service.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import ptu.fsd.nyaysahayak.act_service.model.Act;
+import ptu.fsd.nyaysahayak.act_service.model.ActChange;
+import ptu.fsd.nyaysahayak.act_service.repository.ActChangeRepo;
+
+// Transactional outbox of act changes: one row per written act, inserted by the transaction that writes the act,
+// so a change is published exactly when it commits. Consumers poll changesAfter with the last id they applied.
+//
+// That cursor is only safe if no lower id can commit after a higher one is visible. Ids are assigned at insert,
+// so every recording transaction first takes a transaction-scoped advisory lock, held until it commits or rolls
+// back: the next recording transaction only gets its ids after the previous one is visible or gone. record() is
+// called last in every writing transaction, so the lock covers little more than the commit.
+@Component
+public class ActOutbox {
+
+	private static final Logger log = LoggerFactory.getLogger(ActOutbox.class);
+
+	public static final int MAX_CHANGES = 1000;
+
+	// pg_advisory_xact_lock key serialising the transactions that record changes ("act_changes")
+	private static final long RECORD_LOCK = 0x6163745F6368616EL;
+
+	@Autowired
+	private JdbcTemplate jdbc;
+
+	@Autowired
+	private ActChangeRepo repo;
+
+	@Value("${acts.outbox.retention-hours:168}")
+	private int retentionHours;
+
+	// Must run inside the transaction that writes the acts; returns the id of the last change recorded, 0 for none
+	public long record(Collection<Act> acts) {
+		if (!TransactionSynchronizationManager.isActualTransactionActive())
+			throw new IllegalStateException("Act changes must be recorded in the transaction that writes the acts");
+		if (acts.isEmpty())
+			return 0;
+
+		List<Object[]> rows = new ArrayList<>(acts.size());
+		for (Act act : acts)
+			rows.add(new Object[] { act.getId(), act.getTitle(), act.getSummary(), act.getImpact(), act.getPenalties() });
+		lock();
+		jdbc.batchUpdate("insert into act_changes (act_id, title, summary, impact, penalties, changed_at, deleted) "
+				+ "values (?, ?, ?, ?, ?, clock_timestamp(), false)", rows);
+		return lastId();
+	}
+
+	// Must run inside the transaction that deletes the act; returns the id of the change
+	public long recordDeleted(int actId) {
+		if (!TransactionSynchronizationManager.isActualTransactionActive())
+			throw new IllegalStateException("Act changes must be recorded in the transaction that deletes the act");
+		lock();
+		jdbc.update("insert into act_changes (act_id, changed_at, deleted) values (?, clock_timestamp(), true)", actId);
+		return lastId();
+	}
+
+	public List<ActChange> changesAfter(long after, int limit) {
+		return repo.findAfter(after, Math.min(Math.max(limit, 1), MAX_CHANGES));
+	}
+
+	// Where a consumer that has just read the acts table can start polling without missing a change
+	public long position() {
+		return repo.findPosition();
+	}
+
+	// The last id this session drew from the outbox sequence, the highest of the current transaction's changes
+	private long lastId() {
+		return jdbc.queryForObject("select currval(pg_get_serial_sequence('act_changes', 'id'))", Long.class);
+	}
+
+	private void lock() {
+		jdbc.execute("select pg_advisory_xact_lock(" + RECORD_LOCK + ")");
+	}
+
+	@Scheduled(fixedDelayString = "${acts.outbox.purge-ms:3600000}")
+	public void purge() {
+		int purged = repo.deleteOlderThan(retentionHours);
+		if (purged > 0)
+			log.info("Purged {} act changes older than {} h", purged, retentionHours);
+	}
+}
@@ -1,50 +1,329 @@
 package ptu.fsd.nyaysahayak.act_service.services;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import org.roaringbitmap.RoaringBitmap;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import ptu.fsd.nyaysahayak.act_service.dto.ActBatch;
+import ptu.fsd.nyaysahayak.act_service.dto.ActCard;
+import ptu.fsd.nyaysahayak.act_service.dto.ActFacets;
+import ptu.fsd.nyaysahayak.act_service.dto.ActFilter;
+import ptu.fsd.nyaysahayak.act_service.dto.ActFuzzyResults;
+import ptu.fsd.nyaysahayak.act_service.dto.ActPage;
+import ptu.fsd.nyaysahayak.act_service.dto.ActRelation;
+import ptu.fsd.nyaysahayak.act_service.dto.ActSearchResult;
+import ptu.fsd.nyaysahayak.act_service.dto.ActSuggestion;
+import ptu.fsd.nyaysahayak.act_service.dto.ActTagCount;
+import ptu.fsd.nyaysahayak.act_service.index.ActFacetIndex;
+import ptu.fsd.nyaysahayak.act_service.index.ActFuzzyIndex;
+import ptu.fsd.nyaysahayak.act_service.index.ActIndexer;
+import ptu.fsd.nyaysahayak.act_service.index.ActRelatedGraph;
+import ptu.fsd.nyaysahayak.act_service.index.ActSearchIndex;
+import ptu.fsd.nyaysahayak.act_service.index.ActSuggestIndex;
+import ptu.fsd.nyaysahayak.act_service.index.ActTagDictionary;
 import ptu.fsd.nyaysahayak.act_service.model.Act;
 import ptu.fsd.nyaysahayak.act_service.repository.ActRepo;
 
 @Service
 public class ActService {
 
+	private static final int MAX_SEARCH_RESULTS = 100;
+	private static final int MAX_PAGE_SIZE = 200;
+	public static final int MAX_BATCH_SIZE = 500;
+
+	// Columns a merge patch may set, by JSON field name
+	private static final Map<String, String> PATCHABLE_COLUMNS = Map.ofEntries(
+			Map.entry("title", "title"),
+			Map.entry("category", "category"),
+			Map.entry("year", "year"),
+			Map.entry("summary", "summary"),
+			Map.entry("enactmentDate", "enactment_date"),
+			Map.entry("effectiveDate", "effective_date"),
+			Map.entry("keyProvisions", "key_provisions"),
+			Map.entry("authoritiesInvolved", "authorities_involved"),
+			Map.entry("applicability", "applicability"),
+			Map.entry("penalties", "penalties"),
+			Map.entry("impact", "impact"),
+			Map.entry("relatedLaws", "related_laws"),
+			Map.entry("tags", "tags"));
+
 	@Autowired
 	private ActRepo repo;
+
+	@Autowired
+	private ActCache cache;
+
+	@Autowired
+	private ActIndexer indexer;
+
+	@Autowired
+	private ActCatalogRevision revision;
+
+	@Autowired
+	private ActOutbox outbox;
+
+	@Autowired
+	private TransactionTemplate transaction;
+
+	@Autowired
+	private ActSearchIndex searchIndex;
+
+	@Autowired
+	private ActFacetIndex facetIndex;
+
+	@Autowired
+	private ActTagDictionary tagDictionary;
+
+	@Autowired
+	private ActSuggestIndex suggestIndex;
+
+	@Autowired
+	private ActRelatedGraph relatedGraph;
+
+	@Autowired
+	private ActFuzzyIndex fuzzyIndex;
+
+	@Autowired
+	private ActViews views;
 	
 	public Act saveAct(Act act) {
-		return repo.save(act);
+		adoptVersions(List.of(act));
+		long[] change = new long[1];
+		Act saved = transaction.execute(status -> {
+			Act written = repo.save(act);
+			change[0] = outbox.record(List.of(written));
+			return written;
+		});
+		cache.invalidate(saved.getId());
+		indexer.indexAct(saved);
+		revision.bump(List.of(saved.getId()), change[0]);
+		return saved;
 	}
 
 	public List<Act> saveAct(List<Act>acts) {
 		if(acts == null || acts.isEmpty())
 			return new ArrayList<>();
-		return repo.saveAll(acts);
+		adoptVersions(acts);
+		long[] change = new long[1];
+		List<Act> saved = transaction.execute(status -> {
+			List<Act> written = repo.saveAll(acts);
+			change[0] = outbox.record(written);
+			return written;
+		});
+		cache.invalidateAll(saved.stream().map(Act::getId).toList());
+		indexer.indexActs(saved);
+		revision.bump(saved.stream().map(Act::getId).toList(), change[0]);
+		return saved;
 	}
 	
 	public List<Act> getAllActs() {
 	    return repo.findAll();
 	}
 
+	// Cards with an id greater than `after`; one extra row is read to know whether a next page exists
+	public ActPage getActCards(int after, int limit) {
+		int size = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+		List<ActCard> cards = repo.findCardsAfter(after, Limit.of(size + 1));
+		if (cards.size() <= size)
+			return new ActPage(cards, null);
+		List<ActCard> page = new ArrayList<>(cards.subList(0, size));
+		return new ActPage(page, page.get(size - 1).getId());
+	}
+
+	// Keyset page restricted by the facet filter; the matching ids come from the facet index
+	public ActPage getActCards(int after, int limit, ActFilter filter) {
+		if (filter == null || filter.isEmpty())
+			return getActCards(after, limit);
+		return getActCards(facetIndex.filter(filter), after, limit);
+	}
+
+	// Acts carrying every tag (mode "all") or at least one of them (mode "any")
+	public ActPage getActCardsByTags(List<String> tags, boolean any, int after, int limit) {
+		RoaringBitmap matches = any ? tagDictionary.any(tags) : tagDictionary.all(tags);
+		return getActCards(matches, after, limit);
+	}
+
+	public List<ActTagCount> getTags(int limit) {
+		return tagDictionary.tags(Math.max(limit, 1));
+	}
+
+	private ActPage getActCards(RoaringBitmap matches, int after, int limit) {
+		int size = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+		List<Integer> ids = new ArrayList<>(size + 1);
+		for (long id = matches.nextValue(Math.max(after + 1, 0)); id >= 0 && ids.size() <= size; id = matches.nextValue((int) id + 1))
+			ids.add((int) id);
+
+		if (ids.size() <= size)
+			return new ActPage(getActCardsByIds(ids).getItems(), null);
+		List<Integer> page = ids.subList(0, size);
+		return new ActPage(getActCardsByIds(page).getItems(), page.get(size - 1));
+	}
+
+	public ActFacets getFacets(ActFilter filter) {
+		return facetIndex.facets(filter);
+	}
+
     public Optional<Act> getActById(int id) {
-        return repo.findById(id);  
+        return cache.get(id, repo::findById);
+    }
+
+    // A user opened the act; ranks it higher in the typeahead
+    public void recordView(int id) {
+        views.record(id);
+    }
+
+    // Full acts for the ids, served from the cache with one findAllById for the misses
+    public ActBatch<Act> getActsByIds(Collection<Integer> ids) {
+        Set<Integer> unique = new LinkedHashSet<>(ids);
+        Map<Integer, Act> found = cache.getAll(unique, this::loadActs);
+        return ordered(unique, found);
+    }
+
+    public ActBatch<ActCard> getActCardsByIds(Collection<Integer> ids) {
+        Set<Integer> unique = new LinkedHashSet<>(ids);
+        Map<Integer, ActCard> found = repo.findCardsByIds(unique).stream()
+                .collect(Collectors.toMap(ActCard::getId, Function.identity()));
+        return ordered(unique, found);
+    }
+
+    private Map<Integer, Act> loadActs(Set<Integer> ids) {
+        return repo.findAllById(ids).stream().collect(Collectors.toMap(Act::getId, Function.identity()));
+    }
+
+    private static <T> ActBatch<T> ordered(Set<Integer> ids, Map<Integer, T> found) {
+        List<T> items = new ArrayList<>(found.size());
+        List<Integer> missing = new ArrayList<>();
+        for (Integer id : ids) {
+            T item = found.get(id);
+            if (item != null)
+                items.add(item);
+            else
+                missing.add(id);
+        }
+        return new ActBatch<>(items, missing);
+    }
+
+    public Optional<List<ActRelation>> getRelatedActs(int id, int depth) {
+        return relatedGraph.related(id, depth);
+    }
+
+    public List<ActSuggestion> suggestActs(String prefix, int limit) {
+        return suggestIndex.suggest(prefix, Math.min(Math.max(limit, 1), ActSuggestIndex.TOP_K));
+    }
+
+    public List<ActSearchResult> searchActs(String query, int limit, ActFilter filter) {
+        int size = Math.min(Math.max(limit, 1), MAX_SEARCH_RESULTS);
+        if (filter == null || filter.isEmpty())
+            return searchIndex.search(query, size);
+        RoaringBitmap matches = facetIndex.filter(filter);
+        return searchIndex.search(query, size, matches::contains);
+    }
+
+    public ActFuzzyResults fuzzySearchActs(String query, int limit, ActFilter filter) {
+        int size = Math.min(Math.max(limit, 1), MAX_SEARCH_RESULTS);
+        if (filter == null || filter.isEmpty())
+            return fuzzyIndex.search(query, size, null);
+        RoaringBitmap matches = facetIndex.filter(filter);
+        return fuzzyIndex.search(query, size, matches::contains);
     }
 
     public Act updateAct(int id, Act actDetails) {
-        if (repo.existsById(id)) {
-            actDetails.setId(id);
-            return repo.save(actDetails);
+        actDetails.setId(id);
+        if (adoptVersions(List.of(actDetails)) > 0) {
+            long[] change = new long[1];
+            Act updated = transaction.execute(status -> {
+                Act written = repo.save(actDetails);
+                change[0] = outbox.record(List.of(written));
+                return written;
+            });
+            cache.invalidate(id);
+            indexer.indexAct(updated);
+            revision.bump(List.of(id), change[0]);
+            return updated;
         }
         return null;  
     }
 
+    // Applies a JSON merge patch as one UPDATE of just the patched columns, if the act is still at
+    // expectedVersion (null skips the check); empty when the act is missing or was changed meanwhile
+    public Optional<Act> patchAct(int id, Long expectedVersion, Map<String, Object> patch) {
+        Map<String, Object> columns = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> e : patch.entrySet()) {
+            String column = PATCHABLE_COLUMNS.get(e.getKey());
+            if (column == null)
+                throw new IllegalArgumentException("Field cannot be patched: " + e.getKey());
+            boolean valid = "year".equals(e.getKey()) ? e.getValue() instanceof Integer
+                    : e.getValue() == null || e.getValue() instanceof String;
+            if (!valid)
+                throw new IllegalArgumentException("Invalid value for " + e.getKey());
+            columns.put(column, e.getValue());
+        }
+
+        if (columns.isEmpty())
+            return repo.findById(id).filter(act -> expectedVersion == null || act.getVersion() == expectedVersion);
+
+        long[] change = new long[1];
+        Optional<Act> patched = transaction.execute(status -> {
+            Optional<Act> written = repo.patch(id, expectedVersion, columns);
+            written.ifPresent(act -> change[0] = outbox.record(List.of(act)));
+            return written;
+        });
+        patched.ifPresent(act -> {
+            cache.invalidate(id);
+            indexer.indexAct(act);
+            revision.bump(List.of(id), change[0]);
+        });
+        return patched;
+    }
+
+    public boolean actExists(int id) {
+        return repo.existsById(id);
+    }
+
+    // Full replacements are last-write-wins, so they take over the stored version and pass the @Version check;
+    // returns how many of the acts already exist
+    private int adoptVersions(Collection<Act> acts) {
+        List<Integer> ids = acts.stream().map(Act::getId).filter(id -> id > 0).toList();
+        if (ids.isEmpty())
+            return 0;
+        Map<Integer, Long> versions = new HashMap<>();
+        for (Object[] row : repo.findVersions(ids))
+            versions.put((Integer) row[0], (Long) row[1]);
+        for (Act act : acts) {
+            Long version = versions.get(act.getId());
+            if (version != null)
+                act.setVersion(version);
+        }
+        return versions.size();
+    }
+
+    // The delete and its outbox record commit together, so consumers of the outbox learn of every delete
     public void deleteAct(int id) {
-        if (repo.existsById(id)) {
-            repo.deleteById(id);
+        long[] change = new long[1];
+        boolean deleted = transaction.execute(status -> {
+            if (repo.deleteActById(id) == 0)
+                return false;
+            change[0] = outbox.recordDeleted(id);
+            return true;
+        });
+        if (deleted) {
+            cache.invalidate(id);
+            indexer.removeAct(id);
+            revision.bump(List.of(id), change[0]);
         }
     }
 }
@@ -0,0 +1,77 @@
+package ptu.fsd.nyaysahayak.act_service.services;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import ptu.fsd.nyaysahayak.act_service.index.ActSuggestIndex;
+import ptu.fsd.nyaysahayak.act_service.model.ActView;
+import ptu.fsd.nyaysahayak.act_service.repository.ActViewRepo;
+
+// Detail views per act, the popularity signal of the title typeahead. Views are counted here and added to
+// act_views every refresh-ms, after which the suggest ranking is reweighted from the whole table, so it ranks
+// by the views of every instance and keeps them across restarts. Only views by users are recorded; lookups by
+// other services are not (see ActController).
+@Component
+public class ActViews {
+
+	private static final Logger log = LoggerFactory.getLogger(ActViews.class);
+
+	// Instances add to the same rows, so views are added rather than replaced
+	private static final String ADD = "insert into act_views (act_id, views) values (?, ?) "
+			+ "on conflict (act_id) do update set views = act_views.views + excluded.views";
+
+	@Autowired
+	private JdbcTemplate jdbc;
+
+	@Autowired
+	private ActViewRepo repo;
+
+	@Autowired
+	private ActSuggestIndex suggestIndex;
+
+	// Views not yet added to the table
+	private final Map<Integer, LongAdder> unsynced = new ConcurrentHashMap<>();
+
+	public void record(int actId) {
+		unsynced.computeIfAbsent(actId, id -> new LongAdder()).increment();
+	}
+
+	// Adds the views counted since the last sync, putting them back if that fails, and reweights the typeahead
+	@Scheduled(fixedDelayString = "${acts.suggest.refresh-ms:300000}")
+	public void sync() {
+		List<Object[]> rows = new ArrayList<>();
+		unsynced.forEach((actId, count) -> {
+			long views = count.sumThenReset();
+			if (views > 0)
+				rows.add(new Object[] { actId, views });
+		});
+		try {
+			if (!rows.isEmpty())
+				jdbc.batchUpdate(ADD, rows);
+		} catch (RuntimeException ex) {
+			for (Object[] row : rows)
+				unsynced.computeIfAbsent((Integer) row[0], id -> new LongAdder()).add((Long) row[1]);
+			log.warn("Could not add {} act view counts", rows.size(), ex);
+			return;
+		}
+		try {
+			Map<Integer, Long> weights = new HashMap<>();
+			for (ActView view : repo.findAll())
+				weights.put(view.getActId(), view.getViews());
+			suggestIndex.reweight(weights);
+		} catch (RuntimeException ex) {
+			log.warn("Could not read act view counts", ex);
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package ptu.fsd.nyaysahayak.act_service.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import ptu.fsd.nyaysahayak.act_service.dto.ActFacets;
+import ptu.fsd.nyaysahayak.act_service.dto.ActFilter;
+import ptu.fsd.nyaysahayak.act_service.model.Act;
+
+class ActFacetIndexTests {
+
+	private final ActTagDictionary tags = new ActTagDictionary();
+	private final ActFacetIndex facets = new ActFacetIndex();
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(facets, "tagDictionary", tags);
+		List<Act> acts = List.of(
+				act(1, "Criminal", 1860, "penal, code"),
+				act(2, "criminal ", 1973, "procedure, code"),
+				act(3, "Tax", 2017, "gst"),
+				act(4, null, 2017, null));
+		tags.rebuild(acts);
+		facets.rebuild(acts);
+	}
+
+	@Test
+	void filtersIntersectCategoryYearRangeAndTags() {
+		assertEquals(RoaringBitmap.bitmapOf(1, 2), facets.filter(filter("CRIMINAL", null, null)));
+		assertEquals(RoaringBitmap.bitmapOf(2, 3, 4), facets.filter(filter(null, 1900, null)));
+		assertEquals(RoaringBitmap.bitmapOf(1, 2), facets.filter(filter(null, null, 2000)));
+		assertEquals(RoaringBitmap.bitmapOf(2), facets.filter(filter("criminal", 1900, 2000, "code")));
+		assertTrue(facets.filter(filter(null, 2000, 1900)).isEmpty());
+		assertTrue(facets.filter(filter("unknown", null, null)).isEmpty());
+		assertEquals(RoaringBitmap.bitmapOf(1, 2, 3, 4), facets.filter(new ActFilter()));
+	}
+
+	@Test
+	void countsFacetsOverTheMatches() {
+		ActFacets everything = facets.facets(null);
+		assertEquals(4, everything.getTotal());
+		assertEquals(Map.of("criminal", 2, "tax", 1), everything.getCategories());
+		assertEquals(Map.of(1860, 1, 1973, 1, 2017, 2), everything.getYears());
+		assertEquals(List.of("code", "gst", "penal", "procedure"), List.copyOf(everything.getTags().keySet()));
+
+		ActFacets filtered = facets.facets(filter(null, 1900, null, "code"));
+		assertEquals(1, filtered.getTotal());
+		assertEquals(Map.of("criminal", 1), filtered.getCategories());
+		assertEquals(Map.of("code", 1, "procedure", 1), filtered.getTags());
+	}
+
+	@Test
+	void writesMoveActsBetweenPostings() {
+		Act moved = act(1, "Tax", 2017, "gst");
+		tags.put(moved);
+		facets.put(moved);
+		facets.remove(4);
+		tags.remove(4);
+
+		assertEquals(RoaringBitmap.bitmapOf(2), facets.filter(filter("criminal", null, null)));
+		assertEquals(RoaringBitmap.bitmapOf(1, 3), facets.filter(filter(null, 2017, 2017, "gst")));
+		assertEquals(Map.of(1973, 1, 2017, 2), facets.facets(null).getYears());
+	}
+
+	private static ActFilter filter(String category, Integer yearFrom, Integer yearTo, String... tagList) {
+		ActFilter filter = new ActFilter();
+		filter.setCategory(category);
+		filter.setYearFrom(yearFrom);
+		filter.setYearTo(yearTo);
+		filter.setTags(tagList.length == 0 ? null : List.of(tagList));
+		return filter;
+	}
+
+	private static Act act(int id, String category, int year, String tagList) {
+		Act act = new Act();
+		act.setId(id);
+		act.setCategory(category);
+		act.setYear(year);
+		act.setTags(tagList);
+		return act;
+	}
+}
@@ -0,0 +1,93 @@
+package ptu.fsd.nyaysahayak.act_service.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ptu.fsd.nyaysahayak.act_service.dto.ActFuzzyResults;
+import ptu.fsd.nyaysahayak.act_service.dto.ActSearchResult;
+import ptu.fsd.nyaysahayak.act_service.model.Act;
+
+// In the index package for the package-private distance, trigrams and term id count
+class ActFuzzyIndexTests {
+
+	private final ActFuzzyIndex index = new ActFuzzyIndex(1000);
+
+	@BeforeEach
+	void setUp() {
+		index.rebuild(List.of(
+				act(1, "Consumer Protection Act", null),
+				act(2, "Information Technology Act", "cyber, data protection"),
+				act(3, "Motor Vehicles Act", null)));
+	}
+
+	@Test
+	void distanceGivesUpPastTheBound() {
+		assertEquals(3, ActFuzzyIndex.distance("kitten", "sitting", 3));
+		assertEquals(3, ActFuzzyIndex.distance("kitten", "sitting", 2));
+		assertEquals(2, ActFuzzyIndex.distance("protection", "protectoin", 2));
+		assertEquals(2, ActFuzzyIndex.distance("act", "action", 1));
+		assertEquals(0, ActFuzzyIndex.distance("data", "data", 0));
+	}
+
+	@Test
+	void trigramsArePaddedAtBothEnds() {
+		assertEquals(List.of("$ny", "nya", "yay", "ay$"), ActFuzzyIndex.trigrams("nyay"));
+		assertEquals(List.of("$ab", "ab$"), ActFuzzyIndex.trigrams("ab"));
+	}
+
+	@Test
+	void toleratesEditsByWordLength() {
+		// Seven letters or more allow two edits, four to six one, three none
+		assertEquals(List.of(1), ids(index.search("consmer", 10, null)));
+		assertEquals(List.of(1, 2), ids(index.search("consmer protectoin", 10, null)));
+		assertEquals(List.of(3), ids(index.search("motr", 10, null)));
+		assertTrue(index.search("akt", 10, null).getItems().isEmpty());
+		assertTrue(index.search("vhcls", 10, null).getItems().isEmpty());
+	}
+
+	@Test
+	void ranksByFieldWeightAndFilters() {
+		// "protection" is in act 1's title and only in act 2's tags
+		ActFuzzyResults results = index.search("protection", 10, null);
+		assertFalse(results.isTruncated());
+		assertEquals(List.of(1, 2), ids(results));
+		assertTrue(results.getItems().get(0).getScore() > results.getItems().get(1).getScore());
+		assertEquals(List.of(2), ids(index.search("protection", 10, id -> id != 1)));
+	}
+
+	@Test
+	void termIdsOfRemovedWordsAreReused() {
+		for (int i = 0; i < 200; i++)
+			index.put(act(4, "Temporary Act " + word(i), null));
+		index.remove(4);
+		index.put(act(4, "Temporary Act", null));
+
+		// Nine distinct terms from setUp and at most two of act 4 at a time
+		assertTrue(index.termIdCount() <= 11, "term ids " + index.termIdCount());
+		assertEquals(List.of(4), ids(index.search("temporary", 10, null)));
+		assertTrue(index.search(word(199), 10, null).getItems().isEmpty());
+	}
+
+	// Distinct letters-only words, since digits are words of their own
+	private static String word(int i) {
+		return "w" + (char) ('a' + i / 26 % 26) + (char) ('a' + i % 26) + "xyz";
+	}
+
+	private static List<Integer> ids(ActFuzzyResults results) {
+		return results.getItems().stream().map(ActSearchResult::getId).toList();
+	}
+
+	private static Act act(int id, String title, String tags) {
+		Act act = new Act();
+		act.setId(id);
+		act.setTitle(title);
+		act.setTags(tags);
+		return act;
+	}
+}
@@ -0,0 +1,78 @@
+package ptu.fsd.nyaysahayak.act_service.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ptu.fsd.nyaysahayak.act_service.dto.ActRelation;
+import ptu.fsd.nyaysahayak.act_service.model.Act;
+
+class ActRelatedGraphTests {
+
+	private final ActRelatedGraph graph = new ActRelatedGraph(new SimpleMeterRegistry(), 100);
+
+	// A chain 1 - 2 - 3 - 4 - 5, each act naming the next in its own words
+	@BeforeEach
+	void setUp() {
+		graph.rebuild(List.of(
+				act(1, "Code of Criminal Procedure, 1973", "See the Indian Penal Code and the Indian Penal Code, 1860"),
+				act(2, "The Indian Penal Code, 1860", "Evidence Act; also the Indian Penal Code itself"),
+				act(3, "Evidence Act", "Read with the Juvenile Justice Act"),
+				act(4, "Juvenile Justice Act", "POCSO Act 2012"),
+				act(5, "POCSO Act, 2012", null)));
+	}
+
+	@Test
+	void referencesBecomeUndirectedEdges() {
+		assertEquals(Map.of(1, 1, 3, 1), hops(2, 1));
+		assertEquals(Map.of(2, 1), hops(1, 1));
+		assertEquals(Map.of(4, 1), hops(5, 1));
+	}
+
+	@Test
+	void traversalStopsAtTheDepthAndClampsIt() {
+		assertEquals(Map.of(2, 1, 3, 2, 4, 3), hops(1, 3));
+		assertEquals(Map.of(2, 1, 3, 2, 4, 3), hops(1, 10));
+		assertEquals(Map.of(2, 1), hops(1, 0));
+
+		List<ActRelation> related = graph.related(3, 2).orElseThrow();
+		assertEquals(List.of(1, 1, 2, 2), related.stream().map(ActRelation::getHops).toList());
+		assertTrue(graph.related(99, 1).isEmpty());
+	}
+
+	@Test
+	void writesRebuildTheGraph() {
+		graph.put(act(3, "Bharatiya Sakshya Adhiniyam", "Read with the Juvenile Justice Act"));
+		assertEquals(Map.of(1, 1), hops(2, 1));
+		assertEquals(Map.of(4, 1), hops(3, 1));
+
+		graph.put(act(2, "The Indian Penal Code, 1860", "Bharatiya Sakshya Adhiniyam"));
+		assertEquals(Map.of(1, 1, 3, 1), hops(2, 1));
+
+		graph.remove(3);
+		assertEquals(Map.of(1, 1), hops(2, 3));
+		assertEquals(Map.of(5, 1), hops(4, 3));
+	}
+
+	private Map<Integer, Integer> hops(int actId, int depth) {
+		Map<Integer, Integer> hops = new TreeMap<>();
+		for (ActRelation relation : graph.related(actId, depth).orElseThrow())
+			hops.put(relation.getId(), relation.getHops());
+		return hops;
+	}
+
+	private static Act act(int id, String title, String relatedLaws) {
+		Act act = new Act();
+		act.setId(id);
+		act.setTitle(title);
+		act.setRelatedLaws(relatedLaws);
+		return act;
+	}
+}
@@ -0,0 +1,84 @@
+package ptu.fsd.nyaysahayak.act_service.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ptu.fsd.nyaysahayak.act_service.dto.ActSearchResult;
+import ptu.fsd.nyaysahayak.act_service.model.Act;
+
+class ActSearchIndexTests {
+
+	private final ActSearchIndex index = new ActSearchIndex();
+
+	@BeforeEach
+	void setUp() {
+		index.rebuild(List.of(
+				act(1, "Water Act", null, null),
+				act(2, "Forest Act", null, "Protects forests and the water in them"),
+				act(3, "Air Act", "pollution", null)));
+	}
+
+	@Test
+	void scoresAreBm25fWithFieldWeightedLengths() {
+		List<ActSearchResult> results = index.search("water", 10);
+
+		// Title terms count three times and tag terms twice, in the frequencies and the lengths alike: the lengths
+		// are 2 * 3, 2 * 3 + 4 ("protect forest water them") and 2 * 3 + 1 * 2
+		double idf = Math.log(1 + (3 - 2 + 0.5) / (2 + 0.5));
+		double avgLength = (6 + 10 + 8) / 3.0;
+		assertEquals(List.of(1, 2), ids(results));
+		assertEquals(bm25(idf, 3, 6, avgLength), results.get(0).getScore(), 1e-9);
+		assertEquals(bm25(idf, 1, 10, avgLength), results.get(1).getScore(), 1e-9);
+	}
+
+	@Test
+	void rarerTermsWeighMore() {
+		List<ActSearchResult> common = index.search("act", 10);
+		List<ActSearchResult> rare = index.search("pollution", 10);
+
+		assertEquals(3, common.size());
+		assertEquals(List.of(3), ids(rare));
+		assertTrue(rare.get(0).getScore() > common.get(0).getScore());
+	}
+
+	@Test
+	void putAndRemoveKeepThePostingsCurrent() {
+		index.put(act(1, "Wildlife Act", null, null));
+		assertEquals(List.of(2), ids(index.search("water", 10)));
+		assertEquals(List.of(1), ids(index.search("wildlife", 10)));
+
+		index.remove(2);
+		assertTrue(index.search("water", 10).isEmpty());
+		assertEquals(2, index.size());
+	}
+
+	@Test
+	void filterAndLimitApplyToTheRanking() {
+		assertEquals(List.of(2), ids(index.search("water", 10, id -> id != 1)));
+		assertEquals(1, index.search("act", 1).size());
+		assertTrue(index.search("the of", 10).isEmpty());
+	}
+
+	private static double bm25(double idf, double tf, double length, double avgLength) {
+		double norm = 1.2 * (1 - 0.75 + 0.75 * length / avgLength);
+		return idf * tf * 2.2 / (tf + norm);
+	}
+
+	private static List<Integer> ids(List<ActSearchResult> results) {
+		return results.stream().map(ActSearchResult::getId).toList();
+	}
+
+	static Act act(int id, String title, String tags, String summary) {
+		Act act = new Act();
+		act.setId(id);
+		act.setTitle(title);
+		act.setTags(tags);
+		act.setSummary(summary);
+		return act;
+	}
+}
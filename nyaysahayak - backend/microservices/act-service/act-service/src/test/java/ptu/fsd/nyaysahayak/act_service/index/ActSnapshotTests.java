@@ -0,0 +1,125 @@
+package ptu.fsd.nyaysahayak.act_service.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import jakarta.persistence.EntityManager;
+import ptu.fsd.nyaysahayak.act_service.model.Act;
+import ptu.fsd.nyaysahayak.act_service.repository.ActRepo;
+
+// Writes go through a mocked repository cursor into a temporary file and are read back through load()
+class ActSnapshotTests {
+
+	private static final Instant MODIFIED = Instant.parse("2024-05-01T10:15:30.123Z");
+
+	@TempDir
+	Path dir;
+
+	private final ActRepo repo = mock(ActRepo.class);
+	private List<Act> acts;
+	private Path file;
+	private ActSnapshot snapshot;
+
+	@BeforeEach
+	void setUp() {
+		acts = List.of(
+				act(1, "Indian Penal Code", 1860, MODIFIED.minusSeconds(60), "criminal, penal"),
+				act(2, "Goods and Services Tax Act — जीएसटी", 2017, MODIFIED, null),
+				act(3, "Undated Act", 1950, null, "misc"));
+		when(repo.streamAfter(0)).thenAnswer(call -> acts.stream());
+		file = dir.resolve("snapshots/acts.snap");
+		snapshot = new ActSnapshot(repo, mock(EntityManager.class), mock(PlatformTransactionManager.class), file.toString(), true);
+	}
+
+	@Test
+	void actsWrittenAreReadBack() {
+		snapshot.rebuild(acts);
+		snapshot.writeIfChanged();
+
+		ActSnapshot.Contents contents = snapshot.load().orElseThrow();
+		assertEquals(MODIFIED, contents.watermark());
+		assertEquals(acts.size(), contents.acts().size());
+		for (int i = 0; i < acts.size(); i++) {
+			Act expected = acts.get(i);
+			Act actual = contents.acts().get(i);
+			assertEquals(expected.getId(), actual.getId());
+			assertEquals(expected.getYear(), actual.getYear());
+			assertEquals(expected.getModifiedAt(), actual.getModifiedAt());
+			assertEquals(expected.getTitle(), actual.getTitle());
+			assertEquals(expected.getCategory(), actual.getCategory());
+			assertEquals(expected.getSummary(), actual.getSummary());
+			assertEquals(expected.getKeyProvisions(), actual.getKeyProvisions());
+			assertEquals(expected.getApplicability(), actual.getApplicability());
+			assertEquals(expected.getRelatedLaws(), actual.getRelatedLaws());
+			assertEquals(expected.getTags(), actual.getTags());
+		}
+		assertNull(contents.acts().get(1).getTags());
+		assertFalse(Files.exists(dir.resolve("snapshots/acts.snap.tmp")));
+	}
+
+	@Test
+	void onlyRealChangesCauseAnotherWrite() {
+		snapshot.rebuild(acts);
+		snapshot.loadedFromFile();
+		snapshot.writeIfChanged();
+		assertFalse(Files.exists(file));
+
+		snapshot.put(acts.get(0));
+		snapshot.writeIfChanged();
+		verify(repo, never()).streamAfter(0);
+
+		snapshot.put(act(1, "Indian Penal Code", 1860, MODIFIED.plusSeconds(60), "criminal"));
+		snapshot.writeIfChanged();
+		snapshot.writeIfChanged();
+		verify(repo, times(1)).streamAfter(0);
+
+		snapshot.remove(2);
+		snapshot.writeIfChanged();
+		verify(repo, times(2)).streamAfter(0);
+	}
+
+	@Test
+	void aCorruptFileIsIgnored() throws Exception {
+		snapshot.rebuild(acts);
+		snapshot.writeIfChanged();
+		byte[] bytes = Files.readAllBytes(file);
+		bytes[bytes.length - 1] ^= 1;
+		Files.write(file, bytes);
+		assertTrue(snapshot.load().isEmpty());
+
+		Files.write(file, new byte[] { 1, 2, 3 });
+		assertTrue(snapshot.load().isEmpty());
+	}
+
+	private static Act act(int id, String title, int year, Instant modifiedAt, String tags) {
+		Act act = new Act();
+		act.setId(id);
+		act.setTitle(title);
+		act.setCategory("Category " + id);
+		act.setYear(year);
+		act.setSummary("Summary of " + title);
+		act.setKeyProvisions(id == 3 ? null : "Provisions " + id);
+		act.setApplicability("All of India");
+		act.setRelatedLaws("Related " + id);
+		act.setTags(tags);
+		act.setModifiedAt(modifiedAt);
+		return act;
+	}
+}
@@ -0,0 +1,81 @@
+package ptu.fsd.nyaysahayak.act_service.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import ptu.fsd.nyaysahayak.act_service.dto.ActSuggestion;
+import ptu.fsd.nyaysahayak.act_service.model.Act;
+
+class ActSuggestIndexTests {
+
+	private final ActSuggestIndex index = new ActSuggestIndex();
+
+	@Test
+	void completesTitlesWordStartsAndAcronyms() {
+		index.rebuild(List.of(act(1, "Bharatiya Nyaya Sanhita"), act(2, "Bharatiya Sakshya Adhiniyam"),
+				act(3, "The Bharat Act")));
+
+		// Equal weights rank the shorter title first
+		assertEquals(List.of(3, 1, 2), ids(index.suggest("bhar", 10)));
+		assertEquals(List.of(1, 2), ids(index.suggest("bharatiya", 10)));
+		assertEquals(List.of(1), ids(index.suggest("Bharatiya N", 10)));
+		assertEquals(List.of(1), ids(index.suggest("nyaya", 10)));
+		assertEquals(List.of(1), ids(index.suggest("bns", 10)));
+		assertTrue(index.suggest("bharatiyaz", 10).isEmpty());
+		assertTrue(index.suggest("  ", 10).isEmpty());
+	}
+
+	@Test
+	void putSplitsEdgesAndDeleteDropsEmptyNodes() {
+		index.rebuild(List.of(act(1, "Companies Act")));
+		index.put(act(2, "Company Law Board"));
+		assertEquals(List.of(1, 2), ids(index.suggest("compan", 10)));
+		assertEquals(List.of(2), ids(index.suggest("company", 10)));
+
+		index.put(act(1, "Partnership Act"));
+		assertEquals(List.of(2), ids(index.suggest("compan", 10)));
+		assertEquals(List.of(1), ids(index.suggest("partner", 10)));
+
+		index.remove(2);
+		assertTrue(index.suggest("comp", 10).isEmpty());
+		assertTrue(index.suggest("law", 10).isEmpty());
+		assertEquals(List.of(1), ids(index.suggest("p", 10)));
+	}
+
+	@Test
+	void keepsTheTopKByWeightAtEveryNode() {
+		List<Act> acts = new ArrayList<>();
+		for (int id = 1; id <= 15; id++)
+			acts.add(act(id, "Tax Act " + id));
+		index.rebuild(acts);
+
+		List<Integer> top = ids(index.suggest("tax", 20));
+		assertEquals(ActSuggestIndex.TOP_K, top.size());
+		assertEquals(List.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10), top);
+
+		index.reweight(Map.of(15, 3L, 12, 1L));
+		assertEquals(List.of(15, 12, 1), ids(index.suggest("tax act", 3)));
+		assertEquals(List.of(15, 12, 1), ids(index.suggest("tax act 1", 3)));
+		assertEquals(List.of(13), ids(index.suggest("tax act 13", 3)));
+
+		index.remove(15);
+		assertEquals(12, index.suggest("tax", 1).get(0).getId());
+	}
+
+	private static List<Integer> ids(List<ActSuggestion> suggestions) {
+		return suggestions.stream().map(ActSuggestion::getId).toList();
+	}
+
+	private static Act act(int id, String title) {
+		Act act = new Act();
+		act.setId(id);
+		act.setTitle(title);
+		return act;
+	}
+}
@@ -0,0 +1,63 @@
+package ptu.fsd.nyaysahayak.act_service.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+
+import ptu.fsd.nyaysahayak.act_service.dto.ActTagCount;
+import ptu.fsd.nyaysahayak.act_service.model.Act;
+
+// In the index package for the package-private tag id count
+class ActTagDictionaryTests {
+
+	private final ActTagDictionary tags = new ActTagDictionary();
+
+	@BeforeEach
+	void setUp() {
+		tags.rebuild(List.of(
+				act(1, "Criminal, Procedure"),
+				act(2, " criminal ,evidence, Evidence"),
+				act(3, "Tax")));
+	}
+
+	@Test
+	void tagsAreNormalisedAndDeduplicated() {
+		assertEquals(List.of(new ActTagCount("criminal", 2), new ActTagCount("evidence", 1),
+				new ActTagCount("procedure", 1), new ActTagCount("tax", 1)), tags.tags(10));
+		assertEquals(List.of(new ActTagCount("criminal", 2)), tags.tags(1));
+	}
+
+	@Test
+	void allAndAnyCombineThePostings() {
+		assertEquals(RoaringBitmap.bitmapOf(2), tags.all(List.of("CRIMINAL", "evidence")));
+		assertEquals(RoaringBitmap.bitmapOf(1, 2, 3), tags.any(List.of("procedure", "evidence", "tax", "unknown")));
+		assertTrue(tags.all(List.of("criminal", "unknown")).isEmpty());
+		assertEquals(Map.of("criminal", 2, "evidence", 1, "procedure", 1), tags.countTags(RoaringBitmap.bitmapOf(1, 2)));
+	}
+
+	@Test
+	void idsOfTagsNoLongerCarriedAreReused() {
+		for (int i = 0; i < 100; i++)
+			tags.put(act(3, "Tax, Temporary " + i));
+		tags.remove(1);
+
+		assertEquals(5, tags.idCount());
+		assertTrue(tags.any(List.of("temporary 0", "procedure")).isEmpty());
+		assertEquals(RoaringBitmap.bitmapOf(3), tags.all(List.of("temporary 99")));
+		assertEquals(List.of(new ActTagCount("criminal", 1), new ActTagCount("evidence", 1), new ActTagCount("tax", 1),
+				new ActTagCount("temporary 99", 1)), tags.tags(10));
+	}
+
+	private static Act act(int id, String tagList) {
+		Act act = new Act();
+		act.setId(id);
+		act.setTags(tagList);
+		return act;
+	}
+}
@@ -0,0 +1,29 @@
+package ptu.fsd.nyaysahayak.act_service.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class ActCatalogRevisionTests {
+
+	private final ActCatalogRevision revision = new ActCatalogRevision();
+
+	@Test
+	void anActWrittenTwiceStaysLocalUntilItsLastChangeIsFollowed() {
+		revision.advance(99, 0);
+		String shared = revision.etag("act:5");
+
+		revision.bump(List.of(5), 100);
+		revision.bump(List.of(5), 101);
+		revision.advance(100, 0);
+		String local = revision.etag("act:5");
+		assertNotEquals(shared, local);
+		assertNotEquals("\"100-" + local.substring(local.lastIndexOf('-') + 1), local);
+
+		revision.advance(101, 0);
+		assertEquals("\"101-" + local.substring(local.lastIndexOf('-') + 1), revision.etag("act:5"));
+	}
+}
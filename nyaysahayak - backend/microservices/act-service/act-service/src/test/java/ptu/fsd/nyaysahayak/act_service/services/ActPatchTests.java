@@ -0,0 +1,134 @@
+package ptu.fsd.nyaysahayak.act_service.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.hibernate.Session;
+import org.hibernate.query.NativeQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManager;
+import ptu.fsd.nyaysahayak.act_service.index.ActIndexer;
+import ptu.fsd.nyaysahayak.act_service.model.Act;
+import ptu.fsd.nyaysahayak.act_service.repository.ActRepo;
+import ptu.fsd.nyaysahayak.act_service.repository.ActRepoImpl;
+
+// The version-checked PATCH: the UPDATE statement ActRepoImpl builds, and what ActService does around it. The
+// statement itself needs Postgres (UPDATE ... RETURNING), so the session is mocked and the SQL is checked instead.
+class ActPatchTests {
+
+	private final ActRepo repo = mock(ActRepo.class);
+	private final ActCache cache = mock(ActCache.class);
+	private final ActIndexer indexer = mock(ActIndexer.class);
+	private final ActOutbox outbox = mock(ActOutbox.class);
+	private final ActCatalogRevision revision = new ActCatalogRevision();
+	private final ActService service = new ActService();
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(service, "repo", repo);
+		ReflectionTestUtils.setField(service, "cache", cache);
+		ReflectionTestUtils.setField(service, "indexer", indexer);
+		ReflectionTestUtils.setField(service, "outbox", outbox);
+		ReflectionTestUtils.setField(service, "revision", revision);
+		ReflectionTestUtils.setField(service, "transaction", new TransactionTemplate(mock(PlatformTransactionManager.class)));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void theUpdateChecksTheExpectedVersion() {
+		Session session = mock(Session.class);
+		NativeQuery<Act> query = mock(NativeQuery.class);
+		EntityManager entityManager = mock(EntityManager.class);
+		when(entityManager.unwrap(Session.class)).thenReturn(session);
+		when(session.createNativeQuery(anyString(), eq(Act.class))).thenReturn(query);
+		when(query.getResultList()).thenReturn(List.of(act(7, 4)), List.of());
+		ActRepoImpl impl = new ActRepoImpl();
+		ReflectionTestUtils.setField(impl, "entityManager", entityManager);
+
+		Map<String, Object> columns = new LinkedHashMap<>();
+		columns.put("title", "New title");
+		columns.put("year", null);
+		columns.put("tags", null);
+		assertEquals(4, impl.patch(7, 3L, columns).orElseThrow().getVersion());
+		assertTrue(impl.patch(7, null, Map.of("title", "Other")).isEmpty());
+
+		ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+		verify(session, times(2)).createNativeQuery(sql.capture(), eq(Act.class));
+		assertEquals("update acts set title = :title, year = :year, tags = :tags, version = version + 1, "
+				+ "modified_at = current_timestamp where id = :id and version = :version returning *", sql.getAllValues().get(0));
+		assertEquals("update acts set title = :title, version = version + 1, modified_at = current_timestamp "
+				+ "where id = :id returning *", sql.getAllValues().get(1));
+		verify(query).setParameter("version", 3L);
+		verify(query).setParameter("year", null, Integer.class);
+		verify(query).setParameter("tags", null, String.class);
+	}
+
+	@Test
+	void aPatchedActIsRecordedReindexedAndBumpsTheRevision() {
+		Act patched = act(7, 4);
+		when(repo.patch(7, 3L, Map.of("title", "New title", "year", 1999))).thenReturn(Optional.of(patched));
+		String before = revision.etag("act");
+
+		Map<String, Object> patch = new HashMap<>();
+		patch.put("title", "New title");
+		patch.put("year", 1999);
+		assertEquals(Optional.of(patched), service.patchAct(7, 3L, patch));
+
+		verify(outbox).record(List.of(patched));
+		verify(cache).invalidate(7);
+		verify(indexer).indexAct(patched);
+		assertFalse(before.equals(revision.etag("act")));
+	}
+
+	@Test
+	void aStaleVersionChangesNothing() {
+		when(repo.patch(anyInt(), any(), any())).thenReturn(Optional.empty());
+		String before = revision.etag("act");
+
+		assertTrue(service.patchAct(7, 2L, Map.of("summary", "Changed")).isEmpty());
+
+		verify(repo).patch(7, 2L, Map.of("summary", "Changed"));
+		verifyNoInteractions(outbox, cache, indexer);
+		assertEquals(before, revision.etag("act"));
+	}
+
+	@Test
+	void unknownFieldsAndWrongTypesAreRejectedBeforeTheUpdate() {
+		assertThrows(IllegalArgumentException.class, () -> service.patchAct(7, null, Map.of("version", 9)));
+		assertThrows(IllegalArgumentException.class, () -> service.patchAct(7, null, Map.of("year", "1999")));
+		assertThrows(IllegalArgumentException.class, () -> service.patchAct(7, null, Map.of("title", 5)));
+		verify(repo, never()).patch(anyInt(), any(), any());
+	}
+
+	private static Act act(int id, long version) {
+		Act act = new Act();
+		act.setId(id);
+		act.setTitle("New title");
+		act.setVersion(version);
+		return act;
+	}
+}
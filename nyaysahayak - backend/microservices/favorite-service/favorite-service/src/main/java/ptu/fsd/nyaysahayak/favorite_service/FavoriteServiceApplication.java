@@ -1,13 +1,21 @@
 package ptu.fsd.nyaysahayak.favorite_service;
 
+import java.util.Map;
+
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class FavoriteServiceApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(FavoriteServiceApplication.class, args);
+		SpringApplication application = new SpringApplication(FavoriteServiceApplication.class);
+		// An open-in-view session keeps its first connection for the whole request, which would pin every
+		// later query to that connection's shard; nothing here loads lazily after the service returns
+		application.setDefaultProperties(Map.of("spring.jpa.open-in-view", "false"));
+		application.run(args);
 	}
 
 }
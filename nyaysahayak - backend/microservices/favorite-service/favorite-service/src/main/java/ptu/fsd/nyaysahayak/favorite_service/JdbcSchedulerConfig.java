@@ -0,0 +1,18 @@
+package ptu.fsd.nyaysahayak.favorite_service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+@Configuration
+public class JdbcSchedulerConfig {
+
+	// JPA calls block, so reactive pipelines hand them to a scheduler no wider than the connection pool
+	@Bean(destroyMethod = "dispose")
+	public Scheduler jdbcScheduler(@Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize) {
+		return Schedulers.newBoundedElastic(poolSize, Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE, "jdbc");
+	}
+}
@@ -1,11 +1,15 @@
 package ptu.fsd.nyaysahayak.favorite_service;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.reactive.function.client.WebClientResponseException;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.client.RestTemplate;
+
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
 @Configuration
 public class WebClientConfig {
@@ -13,8 +17,17 @@ public class WebClientConfig {
 
     @Bean
     @LoadBalanced
-    public WebClient.Builder loadBalancedWebClientBuilder() {
-        return WebClient.builder();
+    public WebClient.Builder loadBalancedWebClientBuilder(@Value("${acts.service.max-connections:500}") int maxConnections) {
+        return WebClient.builder().clientConnector(actServiceConnector(maxConnections));
+    }
+
+    // Reactor Netty's default pool keeps only about 16 connections per host, which would queue concurrent saves
+    public static ClientHttpConnector actServiceConnector(int maxConnections) {
+        ConnectionProvider provider = ConnectionProvider.builder("act-service")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(maxConnections * 4)
+                .build();
+        return new ReactorClientHttpConnector(HttpClient.create(provider));
     }
     
 }
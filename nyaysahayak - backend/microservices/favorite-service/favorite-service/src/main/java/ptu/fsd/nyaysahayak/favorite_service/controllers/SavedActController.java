@@ -11,11 +11,17 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import ptu.fsd.nyaysahayak.favorite_service.dto.ActPopularity;
+import ptu.fsd.nyaysahayak.favorite_service.dto.SavedActBulkRequest;
+import ptu.fsd.nyaysahayak.favorite_service.dto.SavedActBulkResult;
+import ptu.fsd.nyaysahayak.favorite_service.dto.SavedActPage;
 import ptu.fsd.nyaysahayak.favorite_service.model.SavedAct;
+import ptu.fsd.nyaysahayak.favorite_service.services.SavedActCounters;
 import ptu.fsd.nyaysahayak.favorite_service.services.SavedActService;
+import reactor.core.publisher.Mono;
 
 @RestController
 @RequestMapping("/api/saved-acts")
@@ -24,23 +30,53 @@ public class SavedActController {
 	@Autowired
 	private SavedActService service;
 	
-	// Save an act for a user
+	// Save an act for a user; the request thread is released while act-service is queried
     @PostMapping
-    public ResponseEntity<?> saveAct(@RequestBody Map<String, Object> request) {
+    public Mono<ResponseEntity<?>> saveAct(@RequestBody Map<String, Object> request) {
+        return Mono.defer(() -> {
+                    String userEmail = (String) request.get("userEmail");
+                    String userFirstName = (String) request.get("userFirstName");
+                    int actId = Integer.parseInt(request.get("actId").toString());
+                    return service.saveActForUser(userEmail, userFirstName, actId);
+                })
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .onErrorResume(RuntimeException.class,
+                        e -> Mono.just(ResponseEntity.badRequest().body(Map.of("error", String.valueOf(e.getMessage())))))
+                .onErrorResume(e -> Mono.just(ResponseEntity.internalServerError().body(Map.of("error", "Failed to save act"))));
+    }   
+    
+    
+    // Save several acts for a user in one request; the response has a status per act
+    @PostMapping("/bulk")
+    public Mono<ResponseEntity<?>> saveActs(@RequestBody SavedActBulkRequest request) {
+        if (!isValid(request) || request.getUserFirstName() == null)
+            return Mono.just(ResponseEntity.badRequest().body(Map.of("error", "userEmail, userFirstName and up to "
+                    + SavedActService.MAX_BULK + " actIds are required")));
+        return Mono.defer(() -> service.saveActsForUser(request.getUserEmail(), request.getUserFirstName(), request.getActIds()))
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .onErrorResume(RuntimeException.class,
+                        e -> Mono.just(ResponseEntity.badRequest().body(Map.of("error", String.valueOf(e.getMessage())))))
+                .onErrorResume(e -> Mono.just(ResponseEntity.internalServerError().body(Map.of("error", "Failed to save acts"))));
+    }
+    
+    // Remove several saved acts with one statement; the response has a status per act
+    @DeleteMapping("/bulk")
+    public ResponseEntity<?> removeSavedActs(@RequestBody SavedActBulkRequest request) {
+        if (!isValid(request))
+            return ResponseEntity.badRequest().body(Map.of("error", "userEmail and up to "
+                    + SavedActService.MAX_BULK + " actIds are required"));
         try {
-            String userEmail = (String) request.get("userEmail");
-            String userFirstName = (String) request.get("userFirstName");
-            int actId = Integer.parseInt(request.get("actId").toString());
-            
-            SavedAct savedAct = service.saveActForUser(userEmail, userFirstName, actId);
-            return ResponseEntity.ok(savedAct);
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            List<SavedActBulkResult> results = service.removeSavedActs(request.getUserEmail(), request.getActIds());
+            return ResponseEntity.ok(results);
         } catch (Exception e) {
-            return ResponseEntity.internalServerError().body(Map.of("error", "Failed to save act"));
+            return ResponseEntity.internalServerError().body(Map.of("error", "Failed to remove saved acts"));
         }
-    }   
+    }
     
+    private static boolean isValid(SavedActBulkRequest request) {
+        return request.getUserEmail() != null && request.getActIds() != null
+                && request.getActIds().size() <= SavedActService.MAX_BULK && !request.getActIds().contains(null);
+    }
     
     // Get all saved acts for a user
     @GetMapping("/user/{userEmail}")
@@ -53,6 +89,29 @@ public class SavedActController {
         }
     }
     
+    // Keyset-paginated cards of a user's saved acts, newest first; the text columns are served by /act/{actId}
+    @GetMapping("/user/{userEmail}/page")
+    public ResponseEntity<SavedActPage> getUserSavedActCards(@PathVariable String userEmail,
+    		@RequestParam(required = false) String before, @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(service.getSavedActCards(userEmail, before, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+    
+    // Get one saved act with its summary, impact and penalties
+    @GetMapping("/user/{userEmail}/act/{actId}")
+    public ResponseEntity<SavedAct> getUserSavedAct(@PathVariable String userEmail, @PathVariable int actId) {
+        try {
+            return ResponseEntity.of(service.getSavedAct(userEmail, actId));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+    
     // Remove a saved act
     @DeleteMapping("/user/{userEmail}/act/{actId}")
     public ResponseEntity<?> removeSavedAct(@PathVariable String userEmail, @PathVariable int actId) {
@@ -79,6 +138,18 @@ public class SavedActController {
         }
     }
     
+    // Which of the given acts the user has saved, for flagging a whole page of acts at once
+    @PostMapping("/user/{userEmail}/is-saved")
+    public ResponseEntity<List<Integer>> getSavedActIds(@PathVariable String userEmail, @RequestBody List<Integer> actIds) {
+        if (actIds.size() > SavedActService.MAX_IS_SAVED)
+            return ResponseEntity.badRequest().build();
+        try {
+            return ResponseEntity.ok(service.getSavedActIds(userEmail, actIds));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+    
     // Get count of saved acts for a user
     @GetMapping("/user/{userEmail}/count")
     public ResponseEntity<Map<String, Long>> getSavedActsCount(@PathVariable String userEmail) {
@@ -89,4 +160,17 @@ public class SavedActController {
             return ResponseEntity.internalServerError().build();
         }
     }
+    
+    // Most saved acts in the last hour, day or week, or by current saves for window=all
+    @GetMapping("/popular")
+    public ResponseEntity<List<ActPopularity>> getPopularActs(@RequestParam(defaultValue = "day") String window,
+    		@RequestParam(defaultValue = "10") int limit) {
+        SavedActCounters.Window span;
+        try {
+            span = SavedActCounters.Window.valueOf(window.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(service.getPopularActs(span, limit));
+    }
 }
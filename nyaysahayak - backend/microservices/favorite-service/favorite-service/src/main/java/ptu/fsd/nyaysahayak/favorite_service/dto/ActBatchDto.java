@@ -0,0 +1,13 @@
+package ptu.fsd.nyaysahayak.favorite_service.dto;
+
+import java.util.List;
+
+import lombok.Data;
+
+// Response of act-service's POST /api/acts/batch: the acts found, and the ids that do not exist
+@Data
+public class ActBatchDto {
+
+	private List<ActDto> items;
+	private List<Integer> missing;
+}
@@ -0,0 +1,19 @@
+package ptu.fsd.nyaysahayak.favorite_service.dto;
+
+import java.time.Instant;
+
+import lombok.Data;
+
+// One row of act-service's change outbox: the act's denormalized columns as of that write, or its deletion
+@Data
+public class ActChangeDto {
+
+	private long id;
+	private int actId;
+	private String title;
+	private String summary;
+	private String impact;
+	private String penalties;
+	private Instant changedAt;
+	private boolean deleted;
+}
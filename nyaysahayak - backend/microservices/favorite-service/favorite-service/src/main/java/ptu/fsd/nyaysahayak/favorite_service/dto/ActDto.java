@@ -1,5 +1,7 @@
 package ptu.fsd.nyaysahayak.favorite_service.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 public class ActDto {
 
 	private int id;
@@ -8,6 +10,10 @@ public class ActDto {
     private String impact;
     private String penalties;
     
+    // Set on copies answered from last-known metadata after act-service failed, which are cached only briefly
+    @JsonIgnore
+    private boolean fallback;
+    
     // Constructors
     public ActDto() {}
     
@@ -59,4 +65,12 @@ public class ActDto {
     public void setPenalties(String penalties) {
         this.penalties = penalties;
     }
+    
+    public boolean isFallback() {
+        return fallback;
+    }
+    
+    public void setFallback(boolean fallback) {
+        this.fallback = fallback;
+    }
 }
@@ -0,0 +1,15 @@
+package ptu.fsd.nyaysahayak.favorite_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// How many times an act was saved in the requested window (for the all-time window: how many users have it saved)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActPopularity {
+
+	private int actId;
+	private long saves;
+}
@@ -0,0 +1,17 @@
+package ptu.fsd.nyaysahayak.favorite_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Outcome of one rebalancer run; failed users stay where they were and are retried by the next run
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RebalanceReport {
+
+	private int usersMoved;
+	private long rowsMoved;
+	private int usersFailed;
+	private long millis;
+}
@@ -0,0 +1,14 @@
+package ptu.fsd.nyaysahayak.favorite_service.dto;
+
+import java.util.List;
+
+import lombok.Data;
+
+// Body of the bulk save and remove endpoints; userFirstName is only read when saving
+@Data
+public class SavedActBulkRequest {
+
+	private String userEmail;
+	private String userFirstName;
+	private List<Integer> actIds;
+}
@@ -0,0 +1,19 @@
+package ptu.fsd.nyaysahayak.favorite_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Outcome of one act in a bulk save or remove
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SavedActBulkResult {
+
+	public enum Status {
+		SAVED, ALREADY_SAVED, NOT_FOUND, REMOVED, NOT_SAVED
+	}
+
+	private int actId;
+	private Status status;
+}
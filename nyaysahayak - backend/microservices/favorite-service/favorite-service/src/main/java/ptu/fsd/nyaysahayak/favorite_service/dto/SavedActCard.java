@@ -0,0 +1,19 @@
+package ptu.fsd.nyaysahayak.favorite_service.dto;
+
+import java.util.Date;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// List-view projection of a saved act, without the long text columns
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SavedActCard {
+
+	private int id;
+	private int actId;
+	private String title;
+	private Date savedAt;
+}
@@ -0,0 +1,17 @@
+package ptu.fsd.nyaysahayak.favorite_service.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One page of saved-act cards, newest first; nextCursor is passed back as `before` and is null on the last page
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SavedActPage {
+
+	private List<SavedActCard> items;
+	private String nextCursor;
+}
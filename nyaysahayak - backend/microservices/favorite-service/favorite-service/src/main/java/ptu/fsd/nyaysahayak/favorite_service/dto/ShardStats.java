@@ -0,0 +1,17 @@
+package ptu.fsd.nyaysahayak.favorite_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Saved-act rows and distinct users on one shard; inRing is false for a shard being drained
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShardStats {
+
+	private String shard;
+	private boolean inRing;
+	private long rows;
+	private long users;
+}
@@ -0,0 +1,23 @@
+package ptu.fsd.nyaysahayak.favorite_service.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Last act-service change id applied by a consumer; advanced in the same transaction as the rows it refreshed
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "ActChangeCursors")
+public class ActChangeCursor {
+    @Id
+    private String consumer;
+    
+    @Column(nullable = false)
+    private long lastId;
+}
@@ -6,10 +6,12 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
 import jakarta.persistence.Temporal;
 import jakarta.persistence.TemporalType;
+import jakarta.persistence.UniqueConstraint;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -18,7 +20,11 @@ import lombok.NoArgsConstructor;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "SavedActs")
+// A user saves an act at most once; the save path relies on this constraint instead of checking first.
+// SavedActSchemaMigration adds it to tables created before it was mapped.
+// The index serves the newest-first keyset pages of a user's saved acts.
+@Table(name = "SavedActs", uniqueConstraints = @UniqueConstraint(name = "uk_saved_acts_user_act", columnNames = { "user_email", "act_id" }),
+		indexes = @Index(name = "ix_saved_acts_user_saved_at", columnList = "user_email, saved_at, id"))
 public class SavedAct {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
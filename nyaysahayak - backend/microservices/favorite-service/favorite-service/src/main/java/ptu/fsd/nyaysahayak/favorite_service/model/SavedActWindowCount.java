@@ -0,0 +1,45 @@
+package ptu.fsd.nyaysahayak.favorite_service.model;
+
+import java.io.Serializable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Saves of an act in one minute or hour, added up over every instance; kept on the home shard for the
+// /popular windows (see SavedActCounters)
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@IdClass(SavedActWindowCount.Key.class)
+@Table(name = "SavedActWindowCounts")
+public class SavedActWindowCount {
+    // MINUTES or HOURS
+    @Id
+    private String unit;
+    
+    // Epoch minute or epoch hour
+    @Id
+    private long bucket;
+    
+    @Id
+    private int actId;
+    
+    @Column(nullable = false)
+    private long saves;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String unit;
+        private long bucket;
+        private int actId;
+    }
+}
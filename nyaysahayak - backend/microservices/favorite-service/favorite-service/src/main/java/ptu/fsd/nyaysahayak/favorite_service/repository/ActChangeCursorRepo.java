@@ -0,0 +1,8 @@
+package ptu.fsd.nyaysahayak.favorite_service.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import ptu.fsd.nyaysahayak.favorite_service.model.ActChangeCursor;
+
+public interface ActChangeCursorRepo extends JpaRepository<ActChangeCursor, String> {
+}
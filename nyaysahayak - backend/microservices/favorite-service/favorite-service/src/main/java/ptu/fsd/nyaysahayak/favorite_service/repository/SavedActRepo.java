@@ -1,24 +1,60 @@
 package ptu.fsd.nyaysahayak.favorite_service.repository;
 
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import ptu.fsd.nyaysahayak.favorite_service.dto.SavedActCard;
 import ptu.fsd.nyaysahayak.favorite_service.model.SavedAct;
 
-public interface SavedActRepo extends JpaRepository<SavedAct, Integer>{
+public interface SavedActRepo extends JpaRepository<SavedAct, Integer>, SavedActRepoCustom {
 
 	
 	 // Find all saved acts for a specific user
     List<SavedAct> findByUserEmailOrderBySavedAtDesc(String userEmail);
     
+    // Newest saved-act cards of a user, and the ones after a (savedAt, id) position in that order
+    @Query("select new ptu.fsd.nyaysahayak.favorite_service.dto.SavedActCard(s.id, s.actId, s.title, s.savedAt) "
+    		+ "from SavedAct s where s.userEmail = :userEmail order by s.savedAt desc, s.id desc")
+    List<SavedActCard> findCards(@Param("userEmail") String userEmail, Limit limit);
+    
+    @Query("select new ptu.fsd.nyaysahayak.favorite_service.dto.SavedActCard(s.id, s.actId, s.title, s.savedAt) "
+    		+ "from SavedAct s where s.userEmail = :userEmail and (s.savedAt, s.id) < (:savedAt, :id) "
+    		+ "order by s.savedAt desc, s.id desc")
+    List<SavedActCard> findCardsBefore(@Param("userEmail") String userEmail, @Param("savedAt") Date savedAt,
+    		@Param("id") int id, Limit limit);
+    
+    @Query("select s.actId from SavedAct s where s.userEmail = :userEmail")
+    List<Integer> findActIdsByUserEmail(@Param("userEmail") String userEmail);
+    
     // Check if a specific act is already saved by a user
     Optional<SavedAct> findByUserEmailAndActId(String userEmail, int actId);
     
-    // Delete a saved act by user email and act ID
-    void deleteByUserEmailAndActId(String userEmail, int actId);
+    // Insert the saved act unless the user already saved it; empty in that case
+    @Transactional
+    @Query(value = "insert into saved_acts (user_email, user_first_name, act_id, title, summary, impact, penalties, saved_at) "
+    		+ "values (:#{#act.userEmail}, :#{#act.userFirstName}, :#{#act.actId}, :#{#act.title}, :#{#act.summary}, "
+    		+ ":#{#act.impact}, :#{#act.penalties}, :#{#act.savedAt}) "
+    		+ "on conflict (user_email, act_id) do nothing returning *", nativeQuery = true)
+    Optional<SavedAct> insertIfAbsent(@Param("act") SavedAct act);
+    
+    // Delete a saved act by user email and act ID in one statement; returns the number of rows removed
+    @Modifying
+    @Transactional
+    @Query("delete from SavedAct s where s.userEmail = :userEmail and s.actId = :actId")
+    int deleteByUserEmailAndActId(@Param("userEmail") String userEmail, @Param("actId") int actId);
     
     // Count saved acts for a user
     long countByUserEmail(String userEmail);
+    
+    // (act id, number of users who saved it); read at startup and on every recount of the in-memory counters
+    @Query("select s.actId, count(s) from SavedAct s group by s.actId")
+    List<Object[]> countByAct();
 }
@@ -0,0 +1,15 @@
+package ptu.fsd.nyaysahayak.favorite_service.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import ptu.fsd.nyaysahayak.favorite_service.model.SavedAct;
+
+public interface SavedActRepoCustom {
+
+	// Inserts the saved acts in one statement, skipping those their user already saved; returns the act ids inserted
+	List<Integer> insertAllIfAbsent(List<SavedAct> acts);
+
+	// Deletes the user's saved acts among actIds in one statement; returns the act ids deleted
+	List<Integer> deleteAllByUserEmailAndActIds(String userEmail, Collection<Integer> actIds);
+}
@@ -0,0 +1,75 @@
+package ptu.fsd.nyaysahayak.favorite_service.repository;
+
+import java.sql.Connection;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import ptu.fsd.nyaysahayak.favorite_service.model.SavedAct;
+
+public class SavedActRepoImpl implements SavedActRepoCustom {
+
+	// One row per array element; RETURNING tells which rows were new, which per-statement batch update
+	// counts cannot once the driver rewrites a batch into multi-row inserts
+	private static final String INSERT_ALL = "insert into saved_acts (user_email, user_first_name, act_id, title, summary, impact, penalties, saved_at) "
+			+ "select * from unnest(?::text[], ?::text[], ?::int[], ?::text[], ?::text[], ?::text[], ?::text[], ?::timestamp[]) "
+			+ "on conflict (user_email, act_id) do nothing returning act_id";
+
+	private static final String DELETE_ALL = "delete from saved_acts where user_email = ? and act_id = any(?::int[]) returning act_id";
+
+	@Autowired
+	private JdbcTemplate jdbc;
+
+	@Override
+	@Transactional
+	public List<Integer> insertAllIfAbsent(List<SavedAct> acts) {
+		if (acts.isEmpty())
+			return List.of();
+		int size = acts.size();
+		String[] emails = new String[size];
+		String[] firstNames = new String[size];
+		Integer[] actIds = new Integer[size];
+		String[] titles = new String[size];
+		String[] summaries = new String[size];
+		String[] impacts = new String[size];
+		String[] penalties = new String[size];
+		Timestamp[] savedAt = new Timestamp[size];
+		for (int i = 0; i < size; i++) {
+			SavedAct act = acts.get(i);
+			emails[i] = act.getUserEmail();
+			firstNames[i] = act.getUserFirstName();
+			actIds[i] = act.getActId();
+			titles[i] = act.getTitle();
+			summaries[i] = act.getSummary();
+			impacts[i] = act.getImpact();
+			penalties[i] = act.getPenalties();
+			savedAt[i] = new Timestamp(act.getSavedAt().getTime());
+		}
+		return jdbc.query(INSERT_ALL, ps -> {
+			Connection connection = ps.getConnection();
+			ps.setArray(1, connection.createArrayOf("text", emails));
+			ps.setArray(2, connection.createArrayOf("text", firstNames));
+			ps.setArray(3, connection.createArrayOf("int4", actIds));
+			ps.setArray(4, connection.createArrayOf("text", titles));
+			ps.setArray(5, connection.createArrayOf("text", summaries));
+			ps.setArray(6, connection.createArrayOf("text", impacts));
+			ps.setArray(7, connection.createArrayOf("text", penalties));
+			ps.setArray(8, connection.createArrayOf("timestamp", savedAt));
+		}, (rs, row) -> rs.getInt(1));
+	}
+
+	@Override
+	@Transactional
+	public List<Integer> deleteAllByUserEmailAndActIds(String userEmail, Collection<Integer> actIds) {
+		if (actIds.isEmpty())
+			return List.of();
+		return jdbc.query(DELETE_ALL, ps -> {
+			ps.setString(1, userEmail);
+			ps.setArray(2, ps.getConnection().createArrayOf("int4", actIds.toArray(new Integer[0])));
+		}, (rs, row) -> rs.getInt(1));
+	}
+}
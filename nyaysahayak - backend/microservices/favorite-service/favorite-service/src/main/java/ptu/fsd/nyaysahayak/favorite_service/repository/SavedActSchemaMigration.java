@@ -0,0 +1,73 @@
+package ptu.fsd.nyaysahayak.favorite_service.repository;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import ptu.fsd.nyaysahayak.favorite_service.sharding.SavedActShards;
+
+// Adds uk_saved_acts_user_act to a saved_acts table created before the constraint was mapped, which Hibernate's
+// schema update cannot do while the table holds duplicates. On each shard missing the constraint, the duplicate
+// rows of a user and act are deleted, keeping the first saved (lowest id), and the constraint is added, in one
+// transaction. Runs before scheduled jobs and requests start; the save path's ON CONFLICT needs the constraint.
+@Component
+public class SavedActSchemaMigration implements SmartInitializingSingleton {
+
+	private static final Logger log = LoggerFactory.getLogger(SavedActSchemaMigration.class);
+
+	private static final String CONSTRAINT = "uk_saved_acts_user_act";
+
+	private static final String TABLE_EXISTS = "select count(*) from information_schema.tables "
+			+ "where lower(table_name) = 'saved_acts' and table_schema = current_schema()";
+	private static final String CONSTRAINT_EXISTS = "select count(*) from information_schema.table_constraints "
+			+ "where lower(table_name) = 'saved_acts' and lower(constraint_name) = '" + CONSTRAINT + "' "
+			+ "and table_schema = current_schema()";
+	private static final String DELETE_DUPLICATES = "delete from saved_acts where exists (select 1 from saved_acts kept "
+			+ "where kept.user_email = saved_acts.user_email and kept.act_id = saved_acts.act_id and kept.id < saved_acts.id)";
+	private static final String ADD_CONSTRAINT = "alter table saved_acts add constraint " + CONSTRAINT + " unique (user_email, act_id)";
+
+	private final SavedActShards shards;
+	private final JdbcTemplate jdbc;
+	private final TransactionTemplate transaction;
+
+	public SavedActSchemaMigration(SavedActShards shards, DataSource dataSource, PlatformTransactionManager transactionManager) {
+		this.shards = shards;
+		this.jdbc = new JdbcTemplate(dataSource);
+		this.transaction = new TransactionTemplate(transactionManager);
+	}
+
+	@Override
+	public void afterSingletonsInstantiated() {
+		for (String shard : shards.names())
+			shards.run(shard, () -> migrate(shard));
+	}
+
+	// A shard without the table yet gets it, constraint included, from Hibernate
+	private void migrate(String shard) {
+		if (count(TABLE_EXISTS) == 0 || count(CONSTRAINT_EXISTS) > 0)
+			return;
+		try {
+			int deleted = transaction.execute(status -> {
+				int rows = jdbc.update(DELETE_DUPLICATES);
+				jdbc.execute(ADD_CONSTRAINT);
+				return rows;
+			});
+			log.info("Added {} to saved_acts on shard {} after deleting {} duplicate rows", CONSTRAINT, shard, deleted);
+		} catch (DataAccessException ex) {
+			// Another instance starting at the same time may have added it first
+			if (count(CONSTRAINT_EXISTS) == 0)
+				throw ex;
+		}
+	}
+
+	private int count(String sql) {
+		return jdbc.queryForObject(sql, Integer.class);
+	}
+}
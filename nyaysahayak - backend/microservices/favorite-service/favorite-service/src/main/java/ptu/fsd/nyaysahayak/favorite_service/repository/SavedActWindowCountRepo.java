@@ -0,0 +1,25 @@
+package ptu.fsd.nyaysahayak.favorite_service.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import ptu.fsd.nyaysahayak.favorite_service.model.SavedActWindowCount;
+
+public interface SavedActWindowCountRepo extends JpaRepository<SavedActWindowCount, SavedActWindowCount.Key>, SavedActWindowCountRepoCustom {
+
+    // (act id, saves) of the most saved acts in the buckets of a unit after the given one, most saved first
+    @Query(value = "select act_id, sum(saves) from saved_act_window_counts where unit = :unit and bucket > :after "
+    		+ "group by act_id order by sum(saves) desc, act_id limit :limit", nativeQuery = true)
+    List<Object[]> findTop(@Param("unit") String unit, @Param("after") long after, @Param("limit") int limit);
+    
+    // Drops the buckets that left every window
+    @Modifying
+    @Transactional
+    @Query("delete from SavedActWindowCount c where c.unit = :unit and c.bucket <= :bucket")
+    int deleteUpTo(@Param("unit") String unit, @Param("bucket") long bucket);
+}
@@ -0,0 +1,11 @@
+package ptu.fsd.nyaysahayak.favorite_service.repository;
+
+import java.util.List;
+
+import ptu.fsd.nyaysahayak.favorite_service.model.SavedActWindowCount;
+
+public interface SavedActWindowCountRepoCustom {
+
+	// Adds each count to the stored count of its unit, bucket and act, in one batch; the keys are distinct
+	void addAll(List<SavedActWindowCount> counts);
+}
@@ -0,0 +1,32 @@
+package ptu.fsd.nyaysahayak.favorite_service.repository;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import ptu.fsd.nyaysahayak.favorite_service.model.SavedActWindowCount;
+
+public class SavedActWindowCountRepoImpl implements SavedActWindowCountRepoCustom {
+
+	// Instances write the same buckets, so counts are added to rather than replaced
+	private static final String ADD = "insert into saved_act_window_counts (unit, bucket, act_id, saves) values (?, ?, ?, ?) "
+			+ "on conflict (unit, bucket, act_id) do update set saves = saved_act_window_counts.saves + excluded.saves";
+
+	@Autowired
+	private JdbcTemplate jdbc;
+
+	@Override
+	@Transactional
+	public void addAll(List<SavedActWindowCount> counts) {
+		if (counts.isEmpty())
+			return;
+		jdbc.batchUpdate(ADD, counts, counts.size(), (ps, count) -> {
+			ps.setString(1, count.getUnit());
+			ps.setLong(2, count.getBucket());
+			ps.setInt(3, count.getActId());
+			ps.setLong(4, count.getSaves());
+		});
+	}
+}
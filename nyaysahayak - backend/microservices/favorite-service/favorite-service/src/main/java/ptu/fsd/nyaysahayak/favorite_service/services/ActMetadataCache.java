@@ -0,0 +1,92 @@
+package ptu.fsd.nyaysahayak.favorite_service.services;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import ptu.fsd.nyaysahayak.favorite_service.dto.ActDto;
+import reactor.core.publisher.Mono;
+
+// Near-cache of act metadata from act-service (Caffeine). Entries expire after acts.cache.ttl-seconds; one
+// still being read after acts.cache.refresh-seconds is reloaded in the background while the old value keeps
+// being served, and concurrent misses for the same act share a single remote call. Multi-act lookups load all
+// their misses with act-service's batch endpoint. Failures and fallbacks are handled by ActServiceClient; a
+// fallback answer expires after acts.cache.fallback-ttl-seconds, so act-service is asked again soon.
+@Component
+public class ActMetadataCache {
+
+	private final AsyncLoadingCache<Integer, ActDto> acts;
+
+	public ActMetadataCache(ActServiceClient client, MeterRegistry registry,
+			@Value("${acts.cache.max-size:10000}") long maxSize,
+			@Value("${acts.cache.ttl-seconds:3600}") long ttlSeconds,
+			@Value("${acts.cache.refresh-seconds:600}") long refreshSeconds,
+			@Value("${acts.cache.fallback-ttl-seconds:30}") long fallbackTtlSeconds) {
+		this.acts = Caffeine.newBuilder()
+				.maximumSize(maxSize)
+				.expireAfter(expiry(Duration.ofSeconds(ttlSeconds), Duration.ofSeconds(fallbackTtlSeconds)))
+				.refreshAfterWrite(Duration.ofSeconds(refreshSeconds))
+				.recordStats()
+				.buildAsync(new AsyncCacheLoader<Integer, ActDto>() {
+					@Override
+					public CompletableFuture<ActDto> asyncLoad(Integer actId, Executor executor) {
+						return client.fetch(actId).toFuture();
+					}
+
+					@Override
+					public CompletableFuture<Map<Integer, ActDto>> asyncLoadAll(Set<? extends Integer> actIds, Executor executor) {
+						return client.fetchAll(actIds).toFuture();
+					}
+				});
+		// Hit ratio and load latency: cache.gets{result=hit|miss}, cache.load.duration
+		CaffeineCacheMetrics.monitor(registry, acts.synchronous(), "act-metadata");
+	}
+
+	// Empty when act-service has no such act; failed lookups are not cached
+	public Mono<ActDto> get(int actId) {
+		// The future is shared by every caller waiting on the same act, so one caller cancelling must not cancel it
+		return Mono.fromFuture(() -> acts.get(actId), true);
+	}
+
+	// The acts found, keyed by id; ids act-service does not know are left out
+	public Mono<Map<Integer, ActDto>> getAll(Collection<Integer> actIds) {
+		return Mono.fromFuture(() -> acts.getAll(actIds), true);
+	}
+
+	public void invalidate(int actId) {
+		acts.synchronous().invalidate(actId);
+	}
+
+	// Expiry after each load or refresh: ttl for an answer from act-service, fallbackTtl for a fallback
+	private static Expiry<Integer, ActDto> expiry(Duration ttl, Duration fallbackTtl) {
+		return new Expiry<>() {
+			@Override
+			public long expireAfterCreate(Integer actId, ActDto act, long now) {
+				return (act.isFallback() ? fallbackTtl : ttl).toNanos();
+			}
+
+			@Override
+			public long expireAfterUpdate(Integer actId, ActDto act, long now, long remaining) {
+				return expireAfterCreate(actId, act, now);
+			}
+
+			@Override
+			public long expireAfterRead(Integer actId, ActDto act, long now, long remaining) {
+				return remaining;
+			}
+		};
+	}
+}
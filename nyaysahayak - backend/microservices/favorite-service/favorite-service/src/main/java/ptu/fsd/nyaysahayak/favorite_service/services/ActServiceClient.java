@@ -0,0 +1,224 @@
+package ptu.fsd.nyaysahayak.favorite_service.services;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import ptu.fsd.nyaysahayak.favorite_service.dto.ActBatchDto;
+import ptu.fsd.nyaysahayak.favorite_service.dto.ActDto;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Calls to act-service, guarded so that one slow or failing instance cannot stall saves:
+//  - a bulkhead bounds the attempts in flight; an attempt that finds it full fails at once (a hedge is skipped)
+//  - a hedge goes out when an attempt has not answered within the recent p95 latency; through the load-balanced
+//    client it normally reaches another instance, and whichever answers first is used
+//  - each lookup, hedge included, has a deadline
+//  - a circuit breaker stops calling act-service while most lookups fail
+//  - a failed lookup falls back to the last metadata fetched for the act, kept longer than the near-cache keeps it
+@Component
+public class ActServiceClient {
+
+	// act-service's limit on ids per batch request
+	private static final int MAX_BATCH_SIZE = 500;
+
+	// act-service's ActController.SERVICE_LOOKUP
+	private static final String SERVICE_LOOKUP = "X-Service-Lookup";
+
+	private final WebClient webClient;
+	private final Duration timeout;
+	private final Duration minHedgeDelay;
+	private final Semaphore bulkhead;
+	private final CircuitBreaker breaker;
+	private final Cache<Integer, ActDto> lastKnown;
+
+	private final Timer latency;
+	private final Counter hedgesSent;
+	private final Counter hedgesWon;
+	private final Counter fallbacks;
+
+	// p95 of attempt latency, recomputed at most once a second
+	private volatile long hedgeDelayNanos;
+	private volatile long hedgeDelayComputedAt;
+
+	public ActServiceClient(@Value("${acts.service.url}") String actServiceUrl, @LoadBalanced WebClient.Builder webClientBuilder,
+			MeterRegistry registry,
+			@Value("${acts.service.timeout-ms:2000}") long timeoutMs,
+			@Value("${acts.service.hedge.min-delay-ms:50}") long minHedgeDelayMs,
+			@Value("${acts.service.bulkhead.max-concurrent:200}") int maxConcurrent,
+			@Value("${acts.service.circuit.failure-rate:50}") float failureRate,
+			@Value("${acts.service.circuit.open-seconds:30}") long openSeconds,
+			@Value("${acts.service.fallback.max-size:50000}") long fallbackSize,
+			@Value("${acts.service.fallback.ttl-hours:24}") long fallbackHours) {
+		// Marked as a service lookup, so act-service does not count metadata fetches as views of the act
+		this.webClient = webClientBuilder.clone().baseUrl(actServiceUrl).defaultHeader(SERVICE_LOOKUP, "favorite-service").build();
+		this.timeout = Duration.ofMillis(timeoutMs);
+		this.minHedgeDelay = Duration.ofMillis(minHedgeDelayMs);
+		this.hedgeDelayNanos = minHedgeDelay.toNanos();
+		this.bulkhead = new Semaphore(maxConcurrent);
+		this.breaker = CircuitBreaker.of("act-service", CircuitBreakerConfig.custom()
+				.failureRateThreshold(failureRate)
+				.slidingWindowSize(50)
+				.minimumNumberOfCalls(20)
+				.waitDurationInOpenState(Duration.ofSeconds(openSeconds))
+				.permittedNumberOfCallsInHalfOpenState(5)
+				.build());
+		this.lastKnown = Caffeine.newBuilder()
+				.maximumSize(fallbackSize)
+				.expireAfterWrite(Duration.ofHours(fallbackHours))
+				.build();
+
+		this.latency = Timer.builder("act.service.latency")
+				.description("Latency of successful act-service attempts, hedges included")
+				.publishPercentiles(0.5, 0.95, 0.99)
+				.publishPercentileHistogram()
+				.register(registry);
+		this.hedgesSent = Counter.builder("act.service.hedges").tag("result", "sent").register(registry);
+		this.hedgesWon = Counter.builder("act.service.hedges").tag("result", "won").register(registry);
+		this.fallbacks = Counter.builder("act.service.fallbacks")
+				.description("Lookups answered from last-known metadata after act-service failed")
+				.register(registry);
+		Gauge.builder("act.service.circuit.state", breaker, b -> b.getState().getOrder())
+				.description("0 closed, 1 open, 2 half-open")
+				.register(registry);
+		Gauge.builder("act.service.bulkhead.available", bulkhead, Semaphore::availablePermits)
+				.register(registry);
+	}
+
+	// Empty when act-service has no such act
+	public Mono<ActDto> fetch(int actId) {
+		Mono<ActDto> lookup = guarded(() -> webClient.get()
+				.uri("/api/acts/{id}", actId)
+				.retrieve()
+				.bodyToMono(ActDto.class)
+				// An unknown act is an answer, not a failure of act-service
+				.onErrorResume(WebClientResponseException.NotFound.class, ex -> Mono.empty()))
+				.doOnNext(act -> lastKnown.put(actId, act));
+		return lookup.onErrorResume(ex -> {
+			ActDto stale = lastKnown.getIfPresent(actId);
+			if (stale == null)
+				return Mono.error(translate(ex, "act"));
+			fallbacks.increment();
+			return Mono.just(fallback(stale));
+		});
+	}
+
+	// The acts found, keyed by id. When act-service fails for a chunk of ids, it is answered from last-known
+	// metadata only if every id in it has some; otherwise the lookup fails, so that no id is reported as unknown
+	// merely because act-service could not be asked
+	public Mono<Map<Integer, ActDto>> fetchAll(Set<? extends Integer> actIds) {
+		List<Integer> ids = new ArrayList<>(actIds);
+		List<List<Integer>> chunks = new ArrayList<>();
+		for (int i = 0; i < ids.size(); i += MAX_BATCH_SIZE)
+			chunks.add(ids.subList(i, Math.min(i + MAX_BATCH_SIZE, ids.size())));
+		return Flux.fromIterable(chunks)
+				.flatMap(chunk -> guarded(() -> webClient.post()
+						.uri("/api/acts/batch")
+						.bodyValue(Map.of("ids", chunk, "view", "full"))
+						.retrieve()
+						.bodyToMono(ActBatchDto.class))
+						.flatMapIterable(ActBatchDto::getItems)
+						.doOnNext(act -> lastKnown.put(act.getId(), act))
+						.onErrorResume(ex -> {
+							Map<Integer, ActDto> stale = new HashMap<>(lastKnown.getAllPresent(chunk));
+							if (stale.size() < chunk.size())
+								return Mono.error(translate(ex, "acts"));
+							fallbacks.increment(stale.size());
+							return Flux.fromIterable(stale.values()).map(ActServiceClient::fallback);
+						}))
+				.collect(Collectors.toMap(ActDto::getId, Function.identity()));
+	}
+
+	// Circuit breaker around a hedged attempt, under one deadline
+	private <T> Mono<T> guarded(Supplier<Mono<T>> call) {
+		return Mono.defer(() -> {
+			if (!breaker.tryAcquirePermission())
+				return Mono.error(CallNotPermittedException.createCallNotPermittedException(breaker));
+			long start = System.nanoTime();
+			return hedged(call)
+					.timeout(timeout)
+					.doOnSuccess(value -> breaker.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS))
+					.doOnError(ex -> breaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, ex))
+					.doOnCancel(breaker::releasePermission);
+		});
+	}
+
+	// The first attempt to answer wins and the other is cancelled. A hedge that fails or finds the bulkhead
+	// full stays silent, so the outcome is then the primary attempt's
+	private <T> Mono<T> hedged(Supplier<Mono<T>> call) {
+		Mono<T> primary = attempt(call, false);
+		Mono<T> hedge = Mono.delay(hedgeDelay())
+				.then(Mono.defer(() -> attempt(call, true)))
+				.onErrorResume(ex -> Mono.never());
+		return Mono.firstWithSignal(primary, hedge);
+	}
+
+	private <T> Mono<T> attempt(Supplier<Mono<T>> call, boolean hedge) {
+		return Mono.defer(() -> {
+			if (!bulkhead.tryAcquire())
+				return Mono.error(new RejectedExecutionException("Too many concurrent calls to the Acts service"));
+			if (hedge)
+				hedgesSent.increment();
+			long start = System.nanoTime();
+			return call.get()
+					.doOnSuccess(value -> {
+						latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+						if (hedge)
+							hedgesWon.increment();
+					})
+					.doFinally(signal -> bulkhead.release());
+		});
+	}
+
+	private Duration hedgeDelay() {
+		long now = System.nanoTime();
+		if (now - hedgeDelayComputedAt > 1_000_000_000L) {
+			hedgeDelayComputedAt = now;
+			long p95 = 0;
+			for (ValueAtPercentile value : latency.takeSnapshot().percentileValues())
+				if (value.percentile() == 0.95)
+					p95 = (long) value.value(TimeUnit.NANOSECONDS);
+			hedgeDelayNanos = Math.max(p95, minHedgeDelay.toNanos());
+		}
+		return Duration.ofNanos(hedgeDelayNanos);
+	}
+
+	// A marked copy, so the cached last-known entry is not marked too
+	private static ActDto fallback(ActDto act) {
+		ActDto copy = new ActDto(act.getId(), act.getTitle(), act.getSummary(), act.getImpact(), act.getPenalties());
+		copy.setFallback(true);
+		return copy;
+	}
+
+	private static RuntimeException translate(Throwable ex, String what) {
+		if (ex instanceof WebClientResponseException response)
+			return new RuntimeException("Failed to fetch the " + what + " from the Acts service! Status Code: -" + response.getStatusCode(), ex);
+		return new RuntimeException("Failed to fetch the " + what + " from the Acts service!", ex);
+	}
+}
@@ -0,0 +1,199 @@
+package ptu.fsd.nyaysahayak.favorite_service.services;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import ptu.fsd.nyaysahayak.favorite_service.dto.ActChangeDto;
+import ptu.fsd.nyaysahayak.favorite_service.model.ActChangeCursor;
+import ptu.fsd.nyaysahayak.favorite_service.repository.ActChangeCursorRepo;
+import ptu.fsd.nyaysahayak.favorite_service.sharding.SavedActShards;
+
+// Keeps the act columns copied into SavedActs current by polling act-service's change outbox. Each page of
+// changes is collapsed to the latest change per act and applied as one UPDATE over all affected rows of each
+// shard, and one DELETE of the saved copies of acts that were deleted, in one transaction per shard. The cursor,
+// on the home shard, advances once every shard has committed; a page that failed part-way is applied again,
+// which both statements tolerate.
+@Component
+public class SavedActChangeConsumer {
+
+	private static final Logger log = LoggerFactory.getLogger(SavedActChangeConsumer.class);
+
+	private static final String CONSUMER = "saved-acts";
+
+	private static final String REFRESH = "update saved_acts s set title = c.title, summary = c.summary, "
+			+ "impact = c.impact, penalties = c.penalties "
+			+ "from unnest(?::int[], ?::text[], ?::text[], ?::text[], ?::text[]) as c(act_id, title, summary, impact, penalties) "
+			+ "where s.act_id = c.act_id";
+
+	private static final String DELETE = "delete from saved_acts where act_id = any(?::int[]) returning user_email, act_id";
+
+	private final WebClient webClient;
+	private final int pageSize;
+
+	// Commit-to-apply delay of the oldest change in each page, rows refreshed and changes per page
+	private final Timer lag;
+	private final Counter refreshed;
+	private final DistributionSummary batchSize;
+
+	@Autowired
+	private JdbcTemplate jdbc;
+
+	@Autowired
+	private TransactionTemplate transaction;
+
+	@Autowired
+	private ActChangeCursorRepo cursors;
+
+	@Autowired
+	private ActMetadataCache actCache;
+	
+	@Autowired
+	private SavedActShards shards;
+
+	@Autowired
+	private SavedActIds savedIds;
+
+	@Autowired
+	private SavedActCounters counters;
+
+	public SavedActChangeConsumer(@Value("${acts.service.url}") String actServiceUrl, @LoadBalanced WebClient.Builder webClientBuilder,
+			MeterRegistry registry, @Value("${acts.changes.page-size:500}") int pageSize) {
+		this.webClient = webClientBuilder.baseUrl(actServiceUrl).build();
+		this.pageSize = pageSize;
+		this.lag = Timer.builder("saved.acts.changes.lag")
+				.description("Time from an act change committing in act-service to its saved-act rows being refreshed")
+				.publishPercentileHistogram()
+				.register(registry);
+		this.refreshed = Counter.builder("saved.acts.changes.rows")
+				.description("Saved-act rows refreshed from act changes")
+				.register(registry);
+		this.batchSize = DistributionSummary.builder("saved.acts.changes.batch")
+				.description("Act changes applied per batch")
+				.register(registry);
+	}
+
+	// Drains every change available, a page at a time
+	@Scheduled(fixedDelayString = "${acts.changes.poll-ms:5000}")
+	public void poll() {
+		try {
+			long after = cursors.findById(CONSUMER).map(ActChangeCursor::getLastId).orElse(0L);
+			List<ActChangeDto> page;
+			do {
+				page = fetch(after);
+				if (page.isEmpty())
+					break;
+				apply(page);
+				after = page.get(page.size() - 1).getId();
+			} while (page.size() == pageSize);
+		} catch (RuntimeException ex) {
+			// The cursor did not move past the failed page, so it is retried on the next poll
+			log.warn("Could not apply act changes", ex);
+		}
+	}
+
+	private List<ActChangeDto> fetch(long after) {
+		List<ActChangeDto> page = webClient.get()
+				.uri(uri -> uri.path("/api/acts/changes").queryParam("after", after).queryParam("limit", pageSize).build())
+				.retrieve()
+				.bodyToMono(new ParameterizedTypeReference<List<ActChangeDto>>() {})
+				.block(Duration.ofSeconds(30));
+		return page == null ? List.of() : page;
+	}
+
+	private void apply(List<ActChangeDto> page) {
+		// Changes come oldest first, so the last one seen for an act is its current state
+		Map<Integer, ActChangeDto> latest = new LinkedHashMap<>();
+		for (ActChangeDto change : page)
+			latest.put(change.getActId(), change);
+
+		List<ActChangeDto> written = new ArrayList<>();
+		List<Integer> deleted = new ArrayList<>();
+		for (ActChangeDto change : latest.values()) {
+			if (change.isDeleted())
+				deleted.add(change.getActId());
+			else
+				written.add(change);
+		}
+		Integer[] deletedIds = deleted.toArray(new Integer[0]);
+
+		int size = written.size();
+		Integer[] actIds = new Integer[size];
+		String[] titles = new String[size];
+		String[] summaries = new String[size];
+		String[] impacts = new String[size];
+		String[] penalties = new String[size];
+		int i = 0;
+		for (ActChangeDto change : written) {
+			actIds[i] = change.getActId();
+			titles[i] = change.getTitle();
+			summaries[i] = change.getSummary();
+			impacts[i] = change.getImpact();
+			penalties[i] = change.getPenalties();
+			i++;
+		}
+
+		long lastId = page.get(page.size() - 1).getId();
+		int rows = 0;
+		// In shard order, so a delete reaches the shard a user is moving from first
+		for (String shard : shards.names()) {
+			List<Object[]> removed = new ArrayList<>();
+			rows += shards.on(shard, () -> transaction.execute(status -> {
+				int updated = size == 0 ? 0 : jdbc.update(REFRESH, ps -> {
+					Connection connection = ps.getConnection();
+					ps.setArray(1, connection.createArrayOf("int4", actIds));
+					ps.setArray(2, connection.createArrayOf("text", titles));
+					ps.setArray(3, connection.createArrayOf("text", summaries));
+					ps.setArray(4, connection.createArrayOf("text", impacts));
+					ps.setArray(5, connection.createArrayOf("text", penalties));
+				});
+				if (deletedIds.length > 0)
+					removed.addAll(jdbc.query(con -> {
+						PreparedStatement ps = con.prepareStatement(DELETE);
+						ps.setArray(1, con.createArrayOf("int4", deletedIds));
+						return ps;
+					}, (rs, n) -> new Object[] { rs.getString(1), rs.getInt(2) }));
+				return updated + removed.size();
+			}));
+			// Only rows this shard's committed DELETE returned, so a page applied again removes nothing twice
+			for (Object[] row : removed) {
+				savedIds.removed((String) row[0], (Integer) row[1]);
+				counters.removed((Integer) row[1]);
+			}
+		}
+
+		shards.run(shards.home(), () -> cursors.save(new ActChangeCursor(CONSUMER, lastId)));
+
+		// Saves made after this point must not copy the metadata cached before the change
+		for (Integer actId : latest.keySet())
+			actCache.invalidate(actId);
+
+		Instant oldest = page.get(0).getChangedAt();
+		if (oldest != null)
+			lag.record(Duration.between(oldest, Instant.now()));
+		batchSize.record(page.size());
+		refreshed.increment(rows);
+		log.debug("Applied {} act changes to {} saved acts, up to change {}", page.size(), rows, lastId);
+	}
+}
@@ -0,0 +1,241 @@
+package ptu.fsd.nyaysahayak.favorite_service.services;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import ptu.fsd.nyaysahayak.favorite_service.dto.ActPopularity;
+import ptu.fsd.nyaysahayak.favorite_service.model.SavedActWindowCount;
+import ptu.fsd.nyaysahayak.favorite_service.repository.SavedActRepo;
+import ptu.fsd.nyaysahayak.favorite_service.repository.SavedActWindowCountRepo;
+import ptu.fsd.nyaysahayak.favorite_service.sharding.SavedActShards;
+
+// Save counts per act, for /popular: how many users have each act saved, and how often it was saved in the last
+// hour, day and week, over every instance of the service. Saves are counted here in per-minute and per-hour
+// buckets holding a LongAdder per act saved in that bucket. Every sync-ms the buckets are drained into
+// saved_act_window_counts on the home shard, adding to what the other instances wrote, and the top acts of each
+// window are read back from it, so /popular aggregates in SQL once per sync rather than per request; a restart
+// loses at most one sync interval of this instance's saves.
+//
+// The all-time counts are recounted from every shard at startup and every recount-ms, which takes in the saves,
+// removes and change-consumer deletes of every instance; in between they follow this instance's writes. With
+// saved-acts.counters.shared off the windows are this instance's own buckets, topped with a bounded heap.
+@Component
+public class SavedActCounters {
+
+	private static final Logger log = LoggerFactory.getLogger(SavedActCounters.class);
+
+	public static final int MAX_TOP = 100;
+
+	private static final int HOUR_MINUTES = 60;
+	private static final int WEEK_HOURS = 7 * 24;
+
+	public enum Window {
+		HOUR, DAY, WEEK, ALL
+	}
+
+	private final SavedActRepo repo;
+	private final SavedActWindowCountRepo windowCounts;
+	private final SavedActShards shards;
+	private final boolean shared;
+
+	private volatile Map<Integer, LongAdder> totals = new ConcurrentHashMap<>();
+	// Keyed by epoch minute / epoch hour; when shared, only the saves not yet synced
+	private final ConcurrentSkipListMap<Long, Map<Integer, LongAdder>> minutes = new ConcurrentSkipListMap<>();
+	private final ConcurrentSkipListMap<Long, Map<Integer, LongAdder>> hours = new ConcurrentSkipListMap<>();
+
+	// The windows as of the last sync, when shared
+	private volatile Map<Window, List<ActPopularity>> synced = new EnumMap<>(Window.class);
+	private volatile Map<Window, List<ActPopularity>> top = new EnumMap<>(Window.class);
+
+	public SavedActCounters(SavedActRepo repo, SavedActWindowCountRepo windowCounts, SavedActShards shards, MeterRegistry registry,
+			@Value("${saved-acts.counters.shared:true}") boolean shared) {
+		this.repo = repo;
+		this.windowCounts = windowCounts;
+		this.shards = shards;
+		this.shared = shared;
+		Gauge.builder("saved.acts.counters.acts", this, counters -> counters.totals.size())
+				.description("Acts with an in-memory save counter")
+				.register(registry);
+	}
+
+	@PostConstruct
+	public void restore() {
+		long start = System.nanoTime();
+		recount();
+		sync();
+		refresh();
+		log.info("Restored save counters for {} acts in {} ms", totals.size(), (System.nanoTime() - start) / 1_000_000);
+	}
+
+	// Called after a save commits
+	public void saved(int actId) {
+		totals.computeIfAbsent(actId, id -> new LongAdder()).increment();
+		long now = System.currentTimeMillis();
+		bucket(minutes, TimeUnit.MILLISECONDS.toMinutes(now)).computeIfAbsent(actId, id -> new LongAdder()).increment();
+		bucket(hours, TimeUnit.MILLISECONDS.toHours(now)).computeIfAbsent(actId, id -> new LongAdder()).increment();
+	}
+
+	// Called after a remove commits; the windows count saves, so only the all-time count drops
+	public void removed(int actId) {
+		LongAdder total = totals.get(actId);
+		if (total != null)
+			total.decrement();
+	}
+
+	// Counts the rows a write-behind flush inserted and deleted; a queued write is not counted before then, since
+	// a save of an act already saved, or a write that is dead-lettered, changes no row
+	@EventListener
+	public void applied(SavedActWriteBehind.Applied applied) {
+		applied.saved().forEach(this::saved);
+		applied.removed().forEach(this::removed);
+	}
+
+	// Most saved acts in the window, as of the last refresh
+	public List<ActPopularity> popular(Window window, int limit) {
+		List<ActPopularity> acts = top.getOrDefault(window, List.of());
+		return new ArrayList<>(acts.subList(0, Math.min(Math.max(limit, 0), acts.size())));
+	}
+
+	// Recomputes the top acts of each window: the all-time ones from the totals, the others from the last sync
+	// when shared, else from the buckets, dropping those that left every window
+	@Scheduled(fixedDelayString = "${saved-acts.popular.refresh-ms:60000}")
+	public void refresh() {
+		Map<Window, List<ActPopularity>> next = new EnumMap<>(Window.class);
+		if (shared) {
+			next.putAll(synced);
+		} else {
+			long now = System.currentTimeMillis();
+			long minute = TimeUnit.MILLISECONDS.toMinutes(now);
+			long hour = TimeUnit.MILLISECONDS.toHours(now);
+			minutes.headMap(minute - HOUR_MINUTES, true).clear();
+			hours.headMap(hour - WEEK_HOURS, true).clear();
+			next.put(Window.HOUR, top(sum(minutes.tailMap(minute - HOUR_MINUTES, false).values())));
+			next.put(Window.DAY, top(sum(hours.tailMap(hour - 24, false).values())));
+			next.put(Window.WEEK, top(sum(hours.values())));
+		}
+		next.put(Window.ALL, top(totals));
+		top = next;
+	}
+
+	// Replaces the all-time counts with a count of every shard's rows. Writes counted into the old map while the
+	// shards are read are lost to it; the next recount has them.
+	@Scheduled(initialDelayString = "${saved-acts.counters.recount-ms:600000}", fixedDelayString = "${saved-acts.counters.recount-ms:600000}")
+	public void recount() {
+		Map<Integer, LongAdder> counts = new ConcurrentHashMap<>();
+		for (List<Object[]> rows : shards.each(repo::countByAct)) {
+			for (Object[] row : rows)
+				counts.computeIfAbsent((Integer) row[0], id -> new LongAdder()).add((Long) row[1]);
+		}
+		totals = counts;
+	}
+
+	// Adds the saves counted since the last sync to the shared buckets, then reads back the top acts of each window.
+	// Counts that could not be written are put back for the next sync.
+	@Scheduled(initialDelayString = "${saved-acts.counters.sync-ms:60000}", fixedDelayString = "${saved-acts.counters.sync-ms:60000}")
+	public void sync() {
+		if (!shared)
+			return;
+		long now = System.currentTimeMillis();
+		long minute = TimeUnit.MILLISECONDS.toMinutes(now);
+		long hour = TimeUnit.MILLISECONDS.toHours(now);
+		List<SavedActWindowCount> counts = new ArrayList<>();
+		drain(minutes, TimeUnit.MINUTES, minute, counts);
+		drain(hours, TimeUnit.HOURS, hour, counts);
+		try {
+			shards.run(shards.home(), () -> windowCounts.addAll(counts));
+		} catch (RuntimeException ex) {
+			for (SavedActWindowCount count : counts)
+				bucket(count.getUnit().equals(TimeUnit.MINUTES.name()) ? minutes : hours, count.getBucket())
+						.computeIfAbsent(count.getActId(), id -> new LongAdder()).add(count.getSaves());
+			log.warn("Could not write {} save counts to the shared windows", counts.size(), ex);
+			return;
+		}
+		try {
+			synced = shards.on(shards.home(), () -> {
+				windowCounts.deleteUpTo(TimeUnit.MINUTES.name(), minute - HOUR_MINUTES);
+				windowCounts.deleteUpTo(TimeUnit.HOURS.name(), hour - WEEK_HOURS);
+				Map<Window, List<ActPopularity>> windows = new EnumMap<>(Window.class);
+				windows.put(Window.HOUR, top(TimeUnit.MINUTES, minute - HOUR_MINUTES));
+				windows.put(Window.DAY, top(TimeUnit.HOURS, hour - 24));
+				windows.put(Window.WEEK, top(TimeUnit.HOURS, hour - WEEK_HOURS));
+				return windows;
+			});
+		} catch (RuntimeException ex) {
+			log.warn("Could not read the shared save windows", ex);
+		}
+	}
+
+	@PreDestroy
+	public void close() {
+		sync();
+	}
+
+	// Moves the bucket counts into rows for the shared table, dropping the buckets before the current one, which
+	// no longer get saves
+	private static void drain(ConcurrentSkipListMap<Long, Map<Integer, LongAdder>> buckets, TimeUnit unit, long current,
+			List<SavedActWindowCount> rows) {
+		for (Map.Entry<Long, Map<Integer, LongAdder>> bucket : buckets.entrySet()) {
+			bucket.getValue().forEach((actId, count) -> {
+				long saves = count.sumThenReset();
+				if (saves > 0)
+					rows.add(new SavedActWindowCount(unit.name(), bucket.getKey(), actId, saves));
+			});
+		}
+		buckets.headMap(current).clear();
+	}
+
+	private List<ActPopularity> top(TimeUnit unit, long after) {
+		List<ActPopularity> acts = new ArrayList<>();
+		for (Object[] row : windowCounts.findTop(unit.name(), after, MAX_TOP))
+			acts.add(new ActPopularity(((Number) row[0]).intValue(), ((Number) row[1]).longValue()));
+		return acts;
+	}
+
+	private static Map<Integer, LongAdder> bucket(Map<Long, Map<Integer, LongAdder>> buckets, long key) {
+		return buckets.computeIfAbsent(key, k -> new ConcurrentHashMap<>());
+	}
+
+	private static Map<Integer, LongAdder> sum(Iterable<Map<Integer, LongAdder>> buckets) {
+		Map<Integer, LongAdder> sums = new HashMap<>();
+		for (Map<Integer, LongAdder> bucket : buckets)
+			bucket.forEach((actId, count) -> sums.computeIfAbsent(actId, id -> new LongAdder()).add(count.sum()));
+		return sums;
+	}
+
+	// The MAX_TOP largest counts, largest first, through a min-heap of that size
+	private static List<ActPopularity> top(Map<Integer, LongAdder> counts) {
+		PriorityQueue<ActPopularity> heap = new PriorityQueue<>(MAX_TOP + 1,
+				(a, b) -> a.getSaves() != b.getSaves() ? Long.compare(a.getSaves(), b.getSaves()) : Integer.compare(b.getActId(), a.getActId()));
+		counts.forEach((actId, count) -> {
+			long saves = count.sum();
+			if (saves <= 0)
+				return;
+			heap.add(new ActPopularity(actId, saves));
+			if (heap.size() > MAX_TOP)
+				heap.poll();
+		});
+		List<ActPopularity> sorted = new ArrayList<>(heap);
+		sorted.sort(Collections.reverseOrder(heap.comparator()));
+		return sorted;
+	}
+}
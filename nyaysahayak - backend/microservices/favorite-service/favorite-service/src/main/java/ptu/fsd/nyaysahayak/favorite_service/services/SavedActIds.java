@@ -0,0 +1,131 @@
+package ptu.fsd.nyaysahayak.favorite_service.services;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import ptu.fsd.nyaysahayak.favorite_service.repository.SavedActRepo;
+import ptu.fsd.nyaysahayak.favorite_service.sharding.SavedActShards;
+
+// The act ids each active user has saved, as compressed bitmaps, so "is it saved?" for a whole page of acts
+// needs no query. A user's bitmap is loaded on first use and reloaded once it is max-age old, however often it is
+// read or updated here, since saves and removes made on other instances never reach it; it is also evicted when
+// the cache is full. Callers that write treat it as a hint and let the database decide.
+// Bitmaps are never mutated once cached: a save or remove replaces the user's bitmap with an updated copy,
+// so readers need no lock. Updates are applied after the write commits (or is queued to the write-behind);
+// one racing a load waits for it. A load overlays the user's writes still pending in the write-behind.
+@Component
+public class SavedActIds {
+
+	private final SavedActRepo repo;
+	private final SavedActShards shards;
+	private final SavedActWriteBehind writeBehind;
+	private final Cache<String, RoaringBitmap> users;
+
+	public SavedActIds(SavedActRepo repo, SavedActShards shards, SavedActWriteBehind writeBehind, MeterRegistry registry,
+			@Value("${saved-acts.ids.max-users:10000}") long maxUsers,
+			@Value("${saved-acts.ids.max-age-seconds:60}") long maxAgeSeconds) {
+		this.repo = repo;
+		this.shards = shards;
+		this.writeBehind = writeBehind;
+		this.users = Caffeine.newBuilder()
+				.maximumSize(maxUsers)
+				.expireAfter(loadedFor(Duration.ofSeconds(maxAgeSeconds)))
+				.recordStats()
+				.build();
+		CaffeineCacheMetrics.monitor(registry, users, "saved-act-ids");
+	}
+
+	// The given act ids the user has saved, in request order
+	public List<Integer> saved(String email, Collection<Integer> actIds) {
+		RoaringBitmap saved = bitmap(email);
+		List<Integer> result = new ArrayList<>();
+		for (Integer actId : actIds) {
+			if (actId != null && saved.contains(actId))
+				result.add(actId);
+		}
+		return result;
+	}
+
+	public boolean isSaved(String email, int actId) {
+		return bitmap(email).contains(actId);
+	}
+
+	public long count(String email) {
+		return bitmap(email).getLongCardinality();
+	}
+
+	public void added(String email, int actId) {
+		users.asMap().computeIfPresent(email, (key, saved) -> {
+			RoaringBitmap copy = saved.clone();
+			copy.add(actId);
+			return copy;
+		});
+	}
+
+	public void removed(String email, int actId) {
+		users.asMap().computeIfPresent(email, (key, saved) -> {
+			RoaringBitmap copy = saved.clone();
+			copy.remove(actId);
+			return copy;
+		});
+	}
+
+	// A dead-lettered write was applied to its user's bitmap when it was queued but never reached the database,
+	// so those bitmaps are reloaded
+	@EventListener
+	public void applied(SavedActWriteBehind.Applied applied) {
+		users.invalidateAll(applied.deadLettered());
+	}
+
+	// Expires a bitmap maxAge after it was loaded; the updated copies added and removed put keep its expiry
+	private static Expiry<String, RoaringBitmap> loadedFor(Duration maxAge) {
+		return new Expiry<>() {
+			@Override
+			public long expireAfterCreate(String email, RoaringBitmap saved, long now) {
+				return maxAge.toNanos();
+			}
+
+			@Override
+			public long expireAfterUpdate(String email, RoaringBitmap saved, long now, long remaining) {
+				return remaining;
+			}
+
+			@Override
+			public long expireAfterRead(String email, RoaringBitmap saved, long now, long remaining) {
+				return remaining;
+			}
+		};
+	}
+
+	private RoaringBitmap bitmap(String email) {
+		return users.get(email, key -> writeBehind.read(() -> {
+			RoaringBitmap saved = new RoaringBitmap();
+			for (List<Integer> actIds : shards.eachForUser(key, () -> repo.findActIdsByUserEmail(key))) {
+				for (int actId : actIds)
+					saved.add(actId);
+			}
+			for (Map.Entry<Integer, ?> pending : writeBehind.pendingFor(key).entrySet()) {
+				if (pending.getValue() == null)
+					saved.remove(pending.getKey());
+				else
+					saved.add(pending.getKey());
+			}
+			saved.runOptimize();
+			return saved;
+		}));
+	}
+}
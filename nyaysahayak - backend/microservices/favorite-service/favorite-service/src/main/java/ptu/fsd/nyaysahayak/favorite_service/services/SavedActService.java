@@ -1,55 +1,164 @@
 package ptu.fsd.nyaysahayak.favorite_service.services;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.ToIntFunction;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.reactive.function.client.WebClientResponseException;
 
-import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
-import jakarta.transaction.Transactional;
 import ptu.fsd.nyaysahayak.favorite_service.dto.ActDto;
+import ptu.fsd.nyaysahayak.favorite_service.dto.ActPopularity;
+import ptu.fsd.nyaysahayak.favorite_service.dto.SavedActBulkResult;
+import ptu.fsd.nyaysahayak.favorite_service.dto.SavedActBulkResult.Status;
+import ptu.fsd.nyaysahayak.favorite_service.dto.SavedActCard;
+import ptu.fsd.nyaysahayak.favorite_service.dto.SavedActPage;
 import ptu.fsd.nyaysahayak.favorite_service.model.SavedAct;
 import ptu.fsd.nyaysahayak.favorite_service.repository.SavedActRepo;
+import ptu.fsd.nyaysahayak.favorite_service.services.SavedActWriteBehind.Outcome;
+import ptu.fsd.nyaysahayak.favorite_service.sharding.SavedActShards;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
 @Service
 public class SavedActService {
 
+	public static final int MAX_PAGE_SIZE = 100;
+	public static final int MAX_IS_SAVED = 1000;
+	public static final int MAX_BULK = 500;
+	
+	private static final Comparator<SavedAct> NEWEST_FIRST =
+			Comparator.comparing(SavedAct::getSavedAt).thenComparingInt(SavedAct::getId).reversed();
+	private static final Comparator<SavedActCard> NEWEST_CARD_FIRST =
+			Comparator.comparing(SavedActCard::getSavedAt).thenComparingInt(SavedActCard::getId).reversed();
 	
 	@Autowired
 	private SavedActRepo repo;
 	
-	private WebClient webClient;
+	// Blocking JPA calls of the reactive save pipeline run here, never on a request or event-loop thread
+	@Autowired
+	private Scheduler jdbcScheduler;
+	
+	@Autowired
+	private ActMetadataCache actCache;
 	
-	 public SavedActService(@Value("${acts.service.url}") String actServiceUrl, @LoadBalanced WebClient.Builder webClientBuilder) {
-	        this.webClient = webClientBuilder.baseUrl(actServiceUrl).build();
-	    }
+	@Autowired
+	private SavedActIds savedIds;
+	
+	@Autowired
+	private SavedActCounters counters;
+	
+	@Autowired
+	private SavedActWriteBehind writeBehind;
+	
+	@Autowired
+	private SavedActShards shards;
 
 	
 	@Value("${acts.service.url}")
 	private String actServiceUrl;
 	
 	
-	public SavedAct saveActForUser (String email, String userFirstName, int actId) {
+	// Non-blocking save: the act lookup runs on the near-cache or the WebClient event loop, so no thread waits
+	// for act-service, and the insert on the JDBC scheduler. The insert is a single statement that skips an act
+	// the user already saved, so concurrent saves of the same act cannot create duplicates. With write-behind
+	// enabled the save is acknowledged once queued and journaled, and the returned act has no id yet; the save
+	// counters count it once the write-behind has inserted its row.
+	public Mono<SavedAct> saveActForUser (String email, String userFirstName, int actId) {
 	
+		return getActsFromActService(actId)
+				.switchIfEmpty(Mono.error(new RuntimeException("Act not found!")))
+				.publishOn(jdbcScheduler)
+				.flatMap(act -> {
+					SavedAct savedAct = toSavedAct(email, userFirstName, actId, act, new Date());
+					// An act already in the bitmap may have been removed on another instance since it was loaded,
+					// so the INSERT, which skips existing rows, decides rather than the bitmap
+					Outcome outcome = !writeBehind.isEnabled() || savedIds.isSaved(email, actId) ? Outcome.REJECTED
+							: writeBehind.save(savedAct);
+					Optional<SavedAct> saved = outcome == Outcome.QUEUED ? Optional.of(savedAct)
+							: outcome == Outcome.DUPLICATE ? Optional.empty() : insert(savedAct);
+					saved.ifPresent(s -> {
+						savedIds.added(email, actId);
+						if (outcome == Outcome.REJECTED)
+							counters.saved(actId);
+					});
+					return Mono.justOrEmpty(saved);
+				})
+				.switchIfEmpty(Mono.error(new RuntimeException("Act already saved by the user!")));
+	}
+	
+	// Bulk save: the acts missing from the near-cache are fetched with one act-service batch call and all rows
+	// are written by one INSERT; the result has one entry per distinct act id, in request order
+	public Mono<List<SavedActBulkResult>> saveActsForUser(String email, String userFirstName, List<Integer> actIds) {
 		
-		Optional <SavedAct> existing = repo.findByUserEmailAndActId(email, actId);
-		
-		if(existing.isPresent()) {
-			throw new RuntimeException("Act already saved by the user!");
+		List<Integer> ids = new ArrayList<>(new LinkedHashSet<>(actIds));
+		return actCache.getAll(ids)
+				.publishOn(jdbcScheduler)
+				.map(acts -> {
+					Date savedAt = new Date();
+					List<SavedAct> rows = new ArrayList<>(acts.size());
+					for (Integer actId : ids) {
+						ActDto act = acts.get(actId);
+						if (act != null)
+							rows.add(toSavedAct(email, userFirstName, actId, act, savedAt));
+					}
+					Set<Integer> inserted = insertAll(email, rows);
+					
+					List<SavedActBulkResult> results = new ArrayList<>(ids.size());
+					for (Integer actId : ids) {
+						Status status = !acts.containsKey(actId) ? Status.NOT_FOUND
+								: inserted.contains(actId) ? Status.SAVED : Status.ALREADY_SAVED;
+						results.add(new SavedActBulkResult(actId, status));
+					}
+					return results;
+				});
+	}
+	
+	// Act ids of the rows written, with the bitmap and counters updated: queued to the write-behind when it is
+	// enabled and has room, which counts them once inserted, the rest with one INSERT
+	private Set<Integer> insertAll(String email, List<SavedAct> rows) {
+		Set<Integer> inserted = new HashSet<>();
+		List<SavedAct> direct = rows;
+		if (writeBehind.isEnabled()) {
+			direct = new ArrayList<>();
+			for (SavedAct row : rows) {
+				// Already in the bitmap: possibly removed elsewhere since it was loaded, so left to the INSERT
+				Outcome outcome = savedIds.isSaved(email, row.getActId()) ? Outcome.REJECTED : writeBehind.save(row);
+				if (outcome == Outcome.QUEUED) {
+					inserted.add(row.getActId());
+					savedIds.added(email, row.getActId());
+				} else if (outcome == Outcome.REJECTED) {
+					direct.add(row);
+				}
+			}
 		}
-		
-		ActDto act = getActsFromActService(actId);
-		
-		if(act == null) {
-			throw new RuntimeException("Act not found!");
+		List<SavedAct> remaining = direct;
+		remaining.forEach(writeBehind::journalSave);
+		for (Integer actId : shards.forUser(email, () -> repo.insertAllIfAbsent(remaining))) {
+			inserted.add(actId);
+			savedIds.added(email, actId);
+			counters.saved(actId);
 		}
-		
-		
+		return inserted;
+	}
+	
+	// Journaled first when the write-behind is enabled, like every write that bypasses it
+	private Optional<SavedAct> insert(SavedAct savedAct) {
+		writeBehind.journalSave(savedAct);
+		return shards.forUser(savedAct.getUserEmail(), () -> repo.insertIfAbsent(savedAct));
+	}
+	
+	// Millisecond precision for savedAt like rows written through JPA, so page cursors compare exactly
+	private static SavedAct toSavedAct(String email, String userFirstName, int actId, ActDto act, Date savedAt) {
 		SavedAct savedAct = new SavedAct();
 		savedAct.setUserEmail(email);
 		savedAct.setUserFirstName(userFirstName);
@@ -58,52 +167,200 @@ public class SavedActService {
 		savedAct.setSummary(act.getSummary());
 		savedAct.setImpact(act.getImpact());
 		savedAct.setPenalties(act.getPenalties());
-		
-		return repo.save(savedAct);
+		savedAct.setSavedAt(savedAt);
+		return savedAct;
 	}
 	
 	
-	public ActDto getActsFromActService(int actId) {
+	// Served from the near-cache; only misses and background refreshes reach act-service
+	public Mono<ActDto> getActsFromActService(int actId) {
 		
-		try {
-			return webClient.get()
-						.uri("/api/acts/{id}", actId)
-						.retrieve()
-						.bodyToMono(ActDto.class)
-						.block();
-			
-		}catch(WebClientResponseException ex) {
-			throw new RuntimeException("Failed to fetch the act from the Acts service! Status Code: -"+ ex.getStatusCode(), ex);
-		}catch(Exception ex) {
-			throw new RuntimeException("Failed to fetch the act from the Acts service!", ex);
-		}
+		return actCache.get(actId);
 	}
 	
 	
+	// Newest first, including the user's writes still pending in the write-behind
 	public List<SavedAct> getSavedActsByUser(String email){	
-			return repo.findByUserEmailOrderBySavedAtDesc(email);
+			return writeBehind.read(() -> {
+				List<SavedAct> rows = merge(shards.eachForUser(email, () -> repo.findByUserEmailOrderBySavedAtDesc(email)),
+						SavedAct::getActId, NEWEST_FIRST);
+				Map<Integer, SavedAct> pending = writeBehind.pendingFor(email);
+				if (pending.isEmpty())
+					return rows;
+				List<SavedAct> merged = new ArrayList<>(rows);
+				merged.removeIf(row -> pending.containsKey(row.getActId()) && pending.get(row.getActId()) == null);
+				for (SavedAct act : pending.values()) {
+					if (act != null && merged.stream().noneMatch(row -> row.getActId() == act.getActId()))
+						merged.add(act);
+				}
+				merged.sort(NEWEST_FIRST);
+				return merged;
+			});
+	}
+	
+	// Cards saved before the `before` cursor, newest first; one extra row is read to know whether a next page exists
+	public SavedActPage getSavedActCards(String email, String before, int limit) {
+		int size = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+		Date beforeSavedAt = null;
+		int beforeId = 0;
+		if (before != null && !before.isEmpty()) {
+			String[] position = before.split("_", 2);
+			try {
+				beforeSavedAt = new Date(Long.parseLong(position[0]));
+				beforeId = Integer.parseInt(position[1]);
+			} catch (NumberFormatException | ArrayIndexOutOfBoundsException ex) {
+				throw new IllegalArgumentException("Invalid cursor: " + before);
+			}
+		}
+		Date cursorSavedAt = beforeSavedAt;
+		int cursorId = beforeId;
+		List<SavedActCard> cards = writeBehind.read(() -> {
+			Map<Integer, SavedAct> pending = writeBehind.pendingFor(email);
+			// Rows removed but not yet deleted are skipped, so read that many more
+			int removed = (int) pending.values().stream().filter(act -> act == null).count();
+			Limit rows = Limit.of(size + 1 + removed);
+			List<SavedActCard> page = merge(shards.eachForUser(email, () -> cursorSavedAt == null ? repo.findCards(email, rows)
+					: repo.findCardsBefore(email, cursorSavedAt, cursorId, rows)), SavedActCard::getActId, NEWEST_CARD_FIRST);
+			if (pending.isEmpty())
+				return page;
+			return mergePending(page, pending, cursorSavedAt, cursorId);
+		});
+		if (cards.size() > size + 1)
+			cards = cards.subList(0, size + 1);
+		if (cards.size() <= size)
+			return new SavedActPage(cards, null);
+		List<SavedActCard> page = new ArrayList<>(cards.subList(0, size));
+		SavedActCard last = page.get(size - 1);
+		return new SavedActPage(page, last.getSavedAt().getTime() + "_" + last.getId());
+	}
+	
+	// Pending saves not yet written have id 0 and come before the cursor position when they are newer than it
+	private static List<SavedActCard> mergePending(List<SavedActCard> page, Map<Integer, SavedAct> pending,
+			Date beforeSavedAt, int beforeId) {
+		List<SavedActCard> merged = new ArrayList<>(page);
+		merged.removeIf(card -> pending.containsKey(card.getActId()));
+		for (SavedAct act : pending.values()) {
+			if (act == null)
+				continue;
+			if (beforeSavedAt != null && (act.getSavedAt().after(beforeSavedAt)
+					|| (act.getSavedAt().equals(beforeSavedAt) && beforeId <= 0)))
+				continue;
+			merged.add(new SavedActCard(0, act.getActId(), act.getTitle(), act.getSavedAt()));
+		}
+		merged.sort(NEWEST_CARD_FIRST);
+		return merged;
+	}
+	
+	// A user's rows from each shard that may hold them, which is more than one only while a rebalance is pending;
+	// an act copied but not yet deleted by the rebalancer is kept once
+	private static <T> List<T> merge(List<List<T>> perShard, ToIntFunction<T> actId, Comparator<T> order) {
+		if (perShard.size() == 1)
+			return perShard.get(0);
+		Set<Integer> seen = new HashSet<>();
+		List<T> merged = new ArrayList<>();
+		for (List<T> rows : perShard) {
+			for (T row : rows) {
+				if (seen.add(actId.applyAsInt(row)))
+					merged.add(row);
+			}
+		}
+		merged.sort(order);
+		return merged;
+	}
+	
+	// Full saved act including the text columns, for a detail view opened from a card
+	public Optional<SavedAct> getSavedAct(String email, int actId) {
+		return writeBehind.read(() -> {
+			Map<Integer, SavedAct> pending = writeBehind.pendingFor(email);
+			if (pending.containsKey(actId))
+				return Optional.ofNullable(pending.get(actId));
+			return shards.eachForUser(email, () -> repo.findByUserEmailAndActId(email, actId)).stream()
+					.flatMap(Optional::stream)
+					.findFirst();
+		});
 	}
 	
-	@Transactional
 	public Boolean removeSavedAct(String email, int actId){
 		
-		Optional<SavedAct> savedAct = repo.findByUserEmailAndActId(email, actId);
-		
-		if(savedAct.isPresent()) {			
-			repo.deleteByUserEmailAndActId(email, actId);
-			return true;
+		// An act missing from the bitmap may have been saved on another instance since it was loaded, so it is
+		// deleted directly rather than reported as not saved
+		Outcome outcome = Outcome.REJECTED;
+		if (writeBehind.isEnabled() && savedIds.isSaved(email, actId)) {
+			outcome = writeBehind.remove(email, actId);
+			if (outcome == Outcome.DUPLICATE)
+				return false;
 		}
+		if (outcome == Outcome.REJECTED && deleteDirectly(email, actId) == 0)
+			return false;
+		savedIds.removed(email, actId);
+		// A queued remove is counted by the write-behind once it deletes the row
+		if (outcome == Outcome.REJECTED)
+			counters.removed(actId);
+		return true;
+	}
+	
+	// Journaled first when the write-behind is enabled, like every write that bypasses it
+	private int deleteDirectly(String email, int actId) {
+		writeBehind.journalRemove(email, actId);
+		return shards.eachForUser(email, () -> repo.deleteByUserEmailAndActId(email, actId))
+				.stream().mapToInt(Integer::intValue).sum();
+	}
+	
+	// Bulk remove with a single DELETE; one entry per distinct act id, in request order
+	public List<SavedActBulkResult> removeSavedActs(String email, List<Integer> actIds) {
 		
-		return false;
+		List<Integer> ids = new ArrayList<>(new LinkedHashSet<>(actIds));
+		Set<Integer> removed = new HashSet<>();
+		List<Integer> direct = ids;
+		if (writeBehind.isEnabled()) {
+			direct = new ArrayList<>();
+			for (Integer actId : ids) {
+				// Not in the bitmap: possibly saved elsewhere since it was loaded, so left to the DELETE
+				Outcome outcome = savedIds.isSaved(email, actId) ? writeBehind.remove(email, actId) : Outcome.REJECTED;
+				if (outcome == Outcome.QUEUED)
+					removed.add(actId);
+				else if (outcome == Outcome.REJECTED)
+					direct.add(actId);
+			}
+		}
+		List<Integer> remaining = direct;
+		remaining.forEach(actId -> writeBehind.journalRemove(email, actId));
+		for (List<Integer> deleted : shards.eachForUser(email, () -> repo.deleteAllByUserEmailAndActIds(email, remaining))) {
+			// Queued removes are counted by the write-behind once applied
+			for (Integer actId : deleted) {
+				if (removed.add(actId))
+					counters.removed(actId);
+			}
+		}
+		List<SavedActBulkResult> results = new ArrayList<>(ids.size());
+		for (Integer actId : ids) {
+			if (removed.contains(actId)) {
+				savedIds.removed(email, actId);
+				results.add(new SavedActBulkResult(actId, Status.REMOVED));
+			} else {
+				results.add(new SavedActBulkResult(actId, Status.NOT_SAVED));
+			}
+		}
+		return results;
 	}
 	
 	public boolean isActSavedByUser(String email, int actId) {
 	
-		return repo.findByUserEmailAndActId(email, actId).isPresent();
+		return savedIds.isSaved(email, actId);
+	}
+	
+	// The subset of actIds the user has saved, answered from the in-memory saved-id bitmaps
+	public List<Integer> getSavedActIds(String email, List<Integer> actIds) {
+		return savedIds.saved(email, actIds);
 	}
 	
+	// Cardinality of the user's saved-id bitmap, which saves and removes keep current
 	public long getSavedActsCountByUser(String email) {
-		return repo.countByUserEmail(email);
+		return savedIds.count(email);
+	}
+	
+	public List<ActPopularity> getPopularActs(SavedActCounters.Window window, int limit) {
+		return counters.popular(window, Math.min(limit, SavedActCounters.MAX_TOP));
 	}
 	
 }
@@ -0,0 +1,573 @@
+package ptu.fsd.nyaysahayak.favorite_service.services;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.dao.NonTransientDataAccessResourceException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import ptu.fsd.nyaysahayak.favorite_service.model.SavedAct;
+import ptu.fsd.nyaysahayak.favorite_service.repository.SavedActRepo;
+import ptu.fsd.nyaysahayak.favorite_service.sharding.SavedActShards;
+
+// Optional write-behind for saves and removes (saved-acts.write-behind.enabled). A write is acknowledged once it
+// is in the pending map and appended to a local journal; a single flusher thread applies pending writes in one
+// transaction per shard every flush-ms, or sooner once batch-size keys are pending, so many saves share a commit.
+// A batch that fails is applied again one write at a time; a write the database rejects outright is moved to a
+// dead-letter file in the journal directory instead of holding up the writes behind it.
+//
+// Pending writes are indexed by user and then act, and the latest one wins, so a save and a remove of the same act
+// never reach the database out of order. Entries stay pending, and visible to readers, until their batch has
+// committed and they are swapped out; readers that combine the database with the pending writes do so under
+// read(), which only that swap excludes, so a reader that read the database before the commit still finds them.
+//
+// The journal is a sequence of segment files of CRC-framed records. Each flush starts a new segment and deletes
+// the older ones once every record in them is committed or dead-lettered; on startup the remaining segments are
+// replayed in order. Writes made directly, when the queue is full or the caller bypasses it, are journaled too,
+// without becoming pending: a segment kept after a partial flush may still hold an older write of the same act,
+// and replaying it alone would undo the direct one. A separate thread forces the journal to disk every sync-ms, so a slow flush does not delay
+// it; that bounds what an OS crash can lose, and a crash of the service alone loses nothing that was acknowledged.
+//
+// Acknowledging a write does not tell whether it changes a row: a queued save of an act saved on another instance
+// inserts nothing. After each flush an Applied event reports the rows actually inserted and deleted, and the users
+// with a dead-lettered write, so the save counters and saved-id bitmaps follow the database rather than the queue.
+@Component
+public class SavedActWriteBehind {
+
+	private static final Logger log = LoggerFactory.getLogger(SavedActWriteBehind.class);
+
+	private static final byte SAVE = 1;
+	private static final byte REMOVE = 2;
+
+	// What becomes of a write handed to the write-behind. QUEUED means accepted, journaled and pending, not that
+	// the act was newly saved or removed; that is only known once the write is applied.
+	public enum Outcome {
+		QUEUED, DUPLICATE, REJECTED
+	}
+
+	// Published after a flush: the act ids of the rows it inserted and deleted, one per row, and the users whose
+	// writes it dead-lettered
+	public record Applied(List<Integer> saved, List<Integer> removed, Set<String> deadLettered) {
+	}
+
+	private record Key(String email, int actId) {
+	}
+
+	// act is null for a remove
+	private record Write(long seq, SavedAct act) {
+	}
+
+	private final SavedActRepo repo;
+	private final SavedActShards shards;
+	private final TransactionTemplate transaction;
+	private final ApplicationEventPublisher events;
+	private final boolean enabled;
+	private final Path directory;
+	private final int capacity;
+	private final int batchSize;
+	private final long flushMs;
+	private final long syncMs;
+
+	private final ReadWriteLock visibility = new ReentrantReadWriteLock();
+	// Pending writes by user and act id, and their number
+	private final Map<String, Map<Integer, Write>> pending = new HashMap<>();
+	private int pendingCount;
+	private long seq;
+	private long segment;
+	private FileChannel journal;
+	private boolean unsynced;
+	private FileChannel deadLetters;
+
+	private final AtomicBoolean flushRequested = new AtomicBoolean();
+	private ScheduledExecutorService flusher;
+	private ScheduledExecutorService syncer;
+
+	private final Timer flushes;
+	private final DistributionSummary batches;
+	private final Counter deadLettered;
+
+	public SavedActWriteBehind(SavedActRepo repo, SavedActShards shards, TransactionTemplate transaction, MeterRegistry registry,
+			ApplicationEventPublisher events,
+			@Value("${saved-acts.write-behind.enabled:false}") boolean enabled,
+			@Value("${saved-acts.write-behind.journal-dir:data/saved-acts-journal}") String directory,
+			@Value("${saved-acts.write-behind.capacity:10000}") int capacity,
+			@Value("${saved-acts.write-behind.batch-size:500}") int batchSize,
+			@Value("${saved-acts.write-behind.flush-ms:200}") long flushMs,
+			@Value("${saved-acts.write-behind.sync-ms:20}") long syncMs) {
+		this.repo = repo;
+		this.shards = shards;
+		this.transaction = transaction;
+		this.events = events;
+		this.enabled = enabled;
+		this.directory = Paths.get(directory);
+		this.capacity = capacity;
+		this.batchSize = batchSize;
+		this.flushMs = flushMs;
+		this.syncMs = syncMs;
+		this.flushes = Timer.builder("saved.acts.write-behind.flush")
+				.description("Time to apply one batch of pending saved-act writes")
+				.register(registry);
+		this.batches = DistributionSummary.builder("saved.acts.write-behind.batch")
+				.description("Saved-act writes applied per flush")
+				.register(registry);
+		this.deadLettered = Counter.builder("saved.acts.write-behind.dead-letters")
+				.description("Saved-act writes the database rejected, moved to the dead-letter file")
+				.register(registry);
+		Gauge.builder("saved.acts.write-behind.pending", this, SavedActWriteBehind::pendingCount)
+				.register(registry);
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	@PostConstruct
+	public void start() throws IOException {
+		if (!enabled)
+			return;
+		Files.createDirectories(directory);
+		replay();
+		openSegment(segment + 1);
+		flusher = daemon("saved-acts-write-behind");
+		syncer = daemon("saved-acts-journal-sync");
+		flusher.scheduleWithFixedDelay(this::flush, 0, flushMs, TimeUnit.MILLISECONDS);
+		syncer.scheduleWithFixedDelay(this::sync, syncMs, syncMs, TimeUnit.MILLISECONDS);
+		log.info("Saved-act write-behind started with {} recovered writes", pendingCount());
+	}
+
+	@PreDestroy
+	public void stop() throws InterruptedException, IOException {
+		if (flusher == null)
+			return;
+		flusher.shutdown();
+		flusher.awaitTermination(30, TimeUnit.SECONDS);
+		syncer.shutdown();
+		syncer.awaitTermination(5, TimeUnit.SECONDS);
+		flush();
+		synchronized (this) {
+			closeSegment();
+			if (deadLetters != null)
+				deadLetters.close();
+		}
+	}
+
+	private static ScheduledExecutorService daemon(String name) {
+		return Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, name);
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	// DUPLICATE when a save of this act by this user is already pending; REJECTED when disabled or full
+	public Outcome save(SavedAct act) {
+		return enqueue(new Key(act.getUserEmail(), act.getActId()), act);
+	}
+
+	// DUPLICATE when a remove of this act by this user is already pending; REJECTED when disabled or full
+	public Outcome remove(String email, int actId) {
+		return enqueue(new Key(email, actId), null);
+	}
+
+	// Journals a save about to be made directly, so a replay applies it after any older write of the act
+	public void journalSave(SavedAct act) {
+		journal(new Key(act.getUserEmail(), act.getActId()), act);
+	}
+
+	// Journals a remove about to be made directly, so a replay cannot resurrect an older save of the act
+	public void journalRemove(String email, int actId) {
+		journal(new Key(email, actId), null);
+	}
+
+	// The user's pending writes by act id: the saved act for a pending save, null for a pending remove
+	public synchronized Map<Integer, SavedAct> pendingFor(String email) {
+		Map<Integer, SavedAct> writes = new HashMap<>();
+		pending.getOrDefault(email, Map.of()).forEach((actId, write) -> writes.put(actId, write.act()));
+		return writes;
+	}
+
+	// Runs a read that merges database rows with pendingFor, so no batch commits between the two
+	public <T> T read(Supplier<T> reader) {
+		visibility.readLock().lock();
+		try {
+			return reader.get();
+		} finally {
+			visibility.readLock().unlock();
+		}
+	}
+
+	private Outcome enqueue(Key key, SavedAct act) {
+		if (!enabled)
+			return Outcome.REJECTED;
+		int size;
+		synchronized (this) {
+			Write previous = pending.getOrDefault(key.email(), Map.of()).get(key.actId());
+			if (previous != null && (previous.act() == null) == (act == null))
+				return Outcome.DUPLICATE;
+			if (previous == null && pendingCount >= capacity)
+				return Outcome.REJECTED;
+			try {
+				append(act == null ? removeRecord(key) : saveRecord(act));
+			} catch (IOException ex) {
+				log.warn("Could not journal a saved-act write; writing it directly", ex);
+				return Outcome.REJECTED;
+			}
+			put(key, act);
+			size = pendingCount;
+		}
+		if (size >= batchSize && flushRequested.compareAndSet(false, true))
+			flusher.execute(this::flush);
+		return Outcome.QUEUED;
+	}
+
+	// Replayed like a queued write; applying it again is harmless, since both statements are idempotent
+	private synchronized void journal(Key key, SavedAct act) {
+		if (!enabled)
+			return;
+		try {
+			append(act == null ? removeRecord(key) : saveRecord(act));
+		} catch (IOException ex) {
+			log.warn("Could not journal a direct saved-act write", ex);
+		}
+	}
+
+	private void flush() {
+		flushRequested.set(false);
+		Map<Key, Write> batch;
+		long lastSegment;
+		synchronized (this) {
+			if (pendingCount == 0)
+				return;
+			batch = new LinkedHashMap<>();
+			pending.forEach((email, writes) -> writes.forEach((actId, write) -> batch.put(new Key(email, actId), write)));
+			lastSegment = segment;
+			FileChannel previous = journal;
+			try {
+				openSegment(segment + 1);
+			} catch (IOException ex) {
+				log.warn("Could not start a new saved-act journal segment", ex);
+				return;
+			}
+			try {
+				previous.force(false);
+				previous.close();
+			} catch (IOException ex) {
+				// Everything in it is about to be committed to the database anyway
+				log.warn("Could not close saved-act journal segment {}", lastSegment, ex);
+			}
+			unsynced = false;
+		}
+
+		long start = System.nanoTime();
+		Applied applied = new Applied(new ArrayList<>(), new ArrayList<>(), new HashSet<>());
+		Map<Key, Write> done;
+		try {
+			apply(batch, applied);
+			done = batch;
+		} catch (RuntimeException ex) {
+			log.warn("Could not apply {} saved-act writes as one batch; applying them one at a time", batch.size(), ex);
+			done = applyEach(batch, applied);
+		}
+
+		visibility.writeLock().lock();
+		try {
+			synchronized (this) {
+				// A write made while the batch was applied replaced its entry and stays pending
+				done.forEach(this::removePending);
+			}
+		} finally {
+			visibility.writeLock().unlock();
+		}
+		flushes.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		batches.record(done.size());
+		// After the swap, so a bitmap reloaded for a dead-lettered user no longer overlays the write
+		if (!applied.saved().isEmpty() || !applied.removed().isEmpty() || !applied.deadLettered().isEmpty())
+			events.publishEvent(applied);
+		// Otherwise the old segments still hold writes that are pending, and are replayed with the rest
+		if (done.size() == batch.size())
+			deleteSegmentsUpTo(lastSegment);
+	}
+
+	// Applies the writes of a failed batch one transaction each and returns those committed or dead-lettered. A
+	// write the database rejects outright is dead-lettered; the first failure that may be transient, such as a
+	// lost connection, ends the pass and leaves the writes not yet applied pending for the next flush.
+	private Map<Key, Write> applyEach(Map<Key, Write> batch, Applied applied) {
+		Map<Key, Write> done = new LinkedHashMap<>();
+		for (Map.Entry<Key, Write> e : batch.entrySet()) {
+			try {
+				apply(Map.of(e.getKey(), e.getValue()), applied);
+			} catch (NonTransientDataAccessResourceException ex) {
+				log.warn("Saved-act writes stay pending", ex);
+				break;
+			} catch (NonTransientDataAccessException ex) {
+				try {
+					deadLetter(e.getKey(), e.getValue(), ex);
+					applied.deadLettered().add(e.getKey().email());
+				} catch (IOException io) {
+					log.warn("Could not dead-letter a saved-act write; it stays pending", io);
+					break;
+				}
+			} catch (RuntimeException ex) {
+				log.warn("Saved-act writes stay pending", ex);
+				break;
+			}
+			done.put(e.getKey(), e.getValue());
+		}
+		return done;
+	}
+
+	// Appends the rejected write, framed like a journal record, to dead-letter.log for an operator to inspect
+	private synchronized void deadLetter(Key key, Write write, RuntimeException cause) throws IOException {
+		if (deadLetters == null)
+			deadLetters = FileChannel.open(directory.resolve("dead-letter.log"), StandardOpenOption.CREATE,
+					StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		ByteBuffer frame = frame(write.act() == null ? removeRecord(key) : saveRecord(write.act()));
+		while (frame.hasRemaining())
+			deadLetters.write(frame);
+		deadLetters.force(false);
+		deadLettered.increment();
+		log.error("Dead-lettered the saved-act {} of act {} by {}", write.act() == null ? "remove" : "save",
+				key.actId(), key.email(), cause);
+	}
+
+	// Per shard, one transaction with one multi-row insert for the saves and one delete per user for the removes;
+	// the keys are distinct. Both statements are idempotent, so a batch that failed on one shard after committing
+	// on another is safely applied again by the next flush. The rows each shard inserted and deleted are added to
+	// applied once its transaction commits; applied again, a write finds nothing left to do and adds none.
+	private void apply(Map<Key, Write> batch, Applied applied) {
+		Map<String, List<SavedAct>> saves = new HashMap<>();
+		Map<String, Map<String, List<Integer>>> removes = new HashMap<>();
+		batch.forEach((key, write) -> {
+			if (write.act() != null) {
+				saves.computeIfAbsent(shards.ownerOf(key.email()), shard -> new ArrayList<>()).add(write.act());
+				return;
+			}
+			for (String shard : shards.shardsOf(key.email())) {
+				removes.computeIfAbsent(shard, s -> new HashMap<>())
+						.computeIfAbsent(key.email(), email -> new ArrayList<>())
+						.add(key.actId());
+			}
+		});
+		// In shard order, so a remove reaches the shard its user is moving from first
+		for (String shard : shards.names()) {
+			if (!saves.containsKey(shard) && !removes.containsKey(shard))
+				continue;
+			List<Integer> saved = new ArrayList<>();
+			List<Integer> removed = new ArrayList<>();
+			shards.run(shard, () -> transaction.executeWithoutResult(status -> {
+				saved.addAll(repo.insertAllIfAbsent(saves.getOrDefault(shard, List.of())));
+				removes.getOrDefault(shard, Map.of()).forEach((email, actIds) ->
+						removed.addAll(repo.deleteAllByUserEmailAndActIds(email, actIds)));
+			}));
+			applied.saved().addAll(saved);
+			applied.removed().addAll(removed);
+		}
+	}
+
+	private void sync() {
+		FileChannel channel;
+		synchronized (this) {
+			if (!unsynced)
+				return;
+			unsynced = false;
+			channel = journal;
+		}
+		try {
+			channel.force(false);
+		} catch (IOException ex) {
+			// The segment was closed by a flush, which forced it first
+			log.debug("Saved-act journal sync skipped", ex);
+		}
+	}
+
+	private synchronized int pendingCount() {
+		return pendingCount;
+	}
+
+	private void put(Key key, SavedAct act) {
+		if (pending.computeIfAbsent(key.email(), email -> new HashMap<>()).put(key.actId(), new Write(++seq, act)) == null)
+			pendingCount++;
+	}
+
+	private void removePending(Key key, Write write) {
+		Map<Integer, Write> writes = pending.get(key.email());
+		if (writes == null || !writes.remove(key.actId(), write))
+			return;
+		pendingCount--;
+		if (writes.isEmpty())
+			pending.remove(key.email());
+	}
+
+	private void append(byte[] record) throws IOException {
+		ByteBuffer frame = frame(record);
+		while (frame.hasRemaining())
+			journal.write(frame);
+		unsynced = true;
+	}
+
+	// Every record is framed as length, CRC32, payload
+	private static ByteBuffer frame(byte[] record) {
+		CRC32 crc = new CRC32();
+		crc.update(record);
+		return ByteBuffer.allocate(4 + 8 + record.length)
+				.putInt(record.length)
+				.putLong(crc.getValue())
+				.put(record)
+				.flip();
+	}
+
+	private static byte[] saveRecord(SavedAct act) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeByte(SAVE);
+		out.writeUTF(act.getUserEmail());
+		out.writeInt(act.getActId());
+		out.writeUTF(act.getUserFirstName());
+		writeNullable(out, act.getTitle());
+		writeNullable(out, act.getSummary());
+		writeNullable(out, act.getImpact());
+		writeNullable(out, act.getPenalties());
+		out.writeLong(act.getSavedAt().getTime());
+		return bytes.toByteArray();
+	}
+
+	private static byte[] removeRecord(Key key) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeByte(REMOVE);
+		out.writeUTF(key.email());
+		out.writeInt(key.actId());
+		return bytes.toByteArray();
+	}
+
+	// Rebuilds the pending writes from the segments left by the previous run, oldest first. A record cut short
+	// by a crash ends its segment's replay; that write was never acknowledged.
+	private void replay() throws IOException {
+		TreeMap<Long, Path> segments = segments();
+		for (Map.Entry<Long, Path> e : segments.entrySet()) {
+			segment = e.getKey();
+			try (DataInputStream in = new DataInputStream(Files.newInputStream(e.getValue()))) {
+				while (true) {
+					byte[] record;
+					try {
+						int length = in.readInt();
+						long checksum = in.readLong();
+						record = in.readNBytes(length);
+						CRC32 crc = new CRC32();
+						crc.update(record);
+						if (record.length != length || crc.getValue() != checksum)
+							break;
+					} catch (EOFException ex) {
+						break;
+					}
+					replay(record);
+				}
+			}
+		}
+	}
+
+	private void replay(byte[] record) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+		byte type = in.readByte();
+		Key key = new Key(in.readUTF(), in.readInt());
+		SavedAct act = null;
+		if (type == SAVE) {
+			act = new SavedAct();
+			act.setUserEmail(key.email());
+			act.setActId(key.actId());
+			act.setUserFirstName(in.readUTF());
+			act.setTitle(readNullable(in));
+			act.setSummary(readNullable(in));
+			act.setImpact(readNullable(in));
+			act.setPenalties(readNullable(in));
+			act.setSavedAt(new Date(in.readLong()));
+		}
+		put(key, act);
+	}
+
+	private TreeMap<Long, Path> segments() throws IOException {
+		TreeMap<Long, Path> segments = new TreeMap<>();
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "segment-*.log")) {
+			for (Path file : files) {
+				String name = file.getFileName().toString();
+				segments.put(Long.parseLong(name.substring("segment-".length(), name.length() - ".log".length())), file);
+			}
+		}
+		return segments;
+	}
+
+	private void openSegment(long number) throws IOException {
+		journal = FileChannel.open(directory.resolve("segment-" + number + ".log"), StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		segment = number;
+	}
+
+	private void closeSegment() throws IOException {
+		if (journal == null)
+			return;
+		journal.force(false);
+		journal.close();
+		journal = null;
+		unsynced = false;
+	}
+
+	private void deleteSegmentsUpTo(long last) {
+		try {
+			for (Map.Entry<Long, Path> e : segments().headMap(last, true).entrySet())
+				Files.deleteIfExists(e.getValue());
+		} catch (IOException ex) {
+			log.warn("Could not delete applied saved-act journal segments", ex);
+		}
+	}
+
+	private static void writeNullable(DataOutputStream out, String value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null)
+			out.writeUTF(value);
+	}
+
+	private static String readNullable(DataInputStream in) throws IOException {
+		return in.readBoolean() ? in.readUTF() : null;
+	}
+}
@@ -0,0 +1,174 @@
+package ptu.fsd.nyaysahayak.favorite_service.sharding;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import ptu.fsd.nyaysahayak.favorite_service.dto.RebalanceReport;
+import ptu.fsd.nyaysahayak.favorite_service.dto.ShardStats;
+import ptu.fsd.nyaysahayak.favorite_service.model.SavedAct;
+
+// Moves every user whose saved acts are on a shard other than the one the ring gives them, after shards were
+// added to or removed from the ring. Run it while saved-acts.sharding.previous-ring still names the old ring, so
+// reads cover both shards of a user until their rows have moved, then drop previous-ring.
+//
+// Users move one at a time. Their rows on the old shard are locked (select ... for update) in a transaction
+// that copies them to the new shard, skipping acts already there, commits the copy, then deletes them and
+// commits. Removes visit the old shard before the new one (SavedActShards orders them so), so a remove racing
+// the move either deletes its row before the lock is taken, and the row is not copied, or waits on the lock
+// and then finds the copy on the new shard. A failure after the copy commits leaves copies on both shards,
+// which reads collapse and the next run deletes; a run only moves what is still misplaced.
+@Component
+public class SavedActRebalancer {
+
+	private static final Logger log = LoggerFactory.getLogger(SavedActRebalancer.class);
+
+	private static final String USERS = "select distinct user_email from saved_acts where user_email > ? order by user_email limit ?";
+	private static final String ROWS = "select user_email, user_first_name, act_id, title, summary, impact, penalties, saved_at "
+			+ "from saved_acts where user_email = ? for update";
+	private static final String ACT_IDS = "select act_id from saved_acts where user_email = ?";
+	private static final String INSERT = "insert into saved_acts (user_email, user_first_name, act_id, title, summary, impact, penalties, saved_at) "
+			+ "values (?, ?, ?, ?, ?, ?, ?, ?)";
+	private static final String DELETE = "delete from saved_acts where user_email = ? and act_id = ?";
+	private static final String STATS = "select count(*), count(distinct user_email) from saved_acts";
+
+	private final SavedActShards shards;
+	private final JdbcTemplate jdbc;
+	private final TransactionTemplate transaction;
+	private final TransactionTemplate copyTransaction;
+	private final MeterRegistry registry;
+	private final int pageSize;
+
+	private final AtomicBoolean running = new AtomicBoolean();
+
+	public SavedActRebalancer(SavedActShards shards, DataSource dataSource, PlatformTransactionManager transactionManager,
+			MeterRegistry registry, @Value("${saved-acts.sharding.rebalance.page-size:500}") int pageSize) {
+		this.shards = shards;
+		this.jdbc = new JdbcTemplate(dataSource);
+		this.transaction = new TransactionTemplate(transactionManager);
+		// The copy commits inside the transaction holding the old shard's locks, on a connection of its own
+		this.copyTransaction = new TransactionTemplate(transactionManager);
+		this.copyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		this.registry = registry;
+		this.pageSize = pageSize;
+	}
+
+	public RebalanceReport rebalance() {
+		if (!running.compareAndSet(false, true))
+			throw new IllegalStateException("A saved-act rebalance is already running");
+		long start = System.nanoTime();
+		int usersMoved = 0;
+		long rowsMoved = 0;
+		int usersFailed = 0;
+		try {
+			for (String shard : shards.names()) {
+				// Keyset over the shard's users; moving a user away does not shift the pages after it
+				String after = "";
+				List<String> users;
+				do {
+					String from = after;
+					users = shards.on(shard, () -> jdbc.queryForList(USERS, String.class, from, pageSize));
+					for (String email : users) {
+						String owner = shards.ownerOf(email);
+						if (owner.equals(shard))
+							continue;
+						try {
+							rowsMoved += move(email, shard, owner);
+							usersMoved++;
+						} catch (RuntimeException ex) {
+							usersFailed++;
+							log.warn("Could not move the saved acts of {} from shard {} to {}", email, shard, owner, ex);
+						}
+					}
+					if (!users.isEmpty())
+						after = users.get(users.size() - 1);
+				} while (users.size() == pageSize);
+			}
+		} finally {
+			running.set(false);
+		}
+		long millis = (System.nanoTime() - start) / 1_000_000;
+		log.info("Rebalanced saved acts: moved {} users ({} rows), {} failed, in {} ms", usersMoved, rowsMoved, usersFailed, millis);
+		return new RebalanceReport(usersMoved, rowsMoved, usersFailed, millis);
+	}
+
+	public List<ShardStats> stats() {
+		List<ShardStats> stats = new ArrayList<>();
+		for (String shard : shards.names()) {
+			long[] counts = shards.on(shard, () -> jdbc.queryForObject(STATS, (rs, n) -> new long[] { rs.getLong(1), rs.getLong(2) }));
+			stats.add(new ShardStats(shard, shards.inRing(shard), counts[0], counts[1]));
+		}
+		return stats;
+	}
+
+	// Copies the user's rows to the target and commits before deleting them from the source, holding the source
+	// rows locked throughout; returns rows copied. The copies get new ids on the target, which only the user's
+	// own page cursors ever refer to.
+	int move(String email, String from, String to) {
+		List<SavedAct> copied = new ArrayList<>();
+		shards.run(from, () -> transaction.executeWithoutResult(status -> {
+			List<SavedAct> rows = jdbc.query(ROWS, SavedActRebalancer::row, email);
+			shards.run(to, () -> copyTransaction.executeWithoutResult(copy -> {
+				Set<Integer> present = new HashSet<>(jdbc.queryForList(ACT_IDS, Integer.class, email));
+				for (SavedAct act : rows) {
+					if (!present.contains(act.getActId()))
+						copied.add(act);
+				}
+				jdbc.batchUpdate(INSERT, copied, pageSize, (ps, act) -> {
+					ps.setString(1, act.getUserEmail());
+					ps.setString(2, act.getUserFirstName());
+					ps.setInt(3, act.getActId());
+					ps.setString(4, act.getTitle());
+					ps.setString(5, act.getSummary());
+					ps.setString(6, act.getImpact());
+					ps.setString(7, act.getPenalties());
+					ps.setTimestamp(8, act.getSavedAt() == null ? null : new Timestamp(act.getSavedAt().getTime()));
+				});
+			}));
+			jdbc.batchUpdate(DELETE, rows, pageSize, (ps, act) -> {
+				ps.setString(1, email);
+				ps.setInt(2, act.getActId());
+			});
+		}));
+
+		Counter.builder("saved.acts.rebalance.rows")
+				.description("Saved-act rows copied to another shard by the rebalancer")
+				.tags("from", from, "to", to)
+				.register(registry)
+				.increment(copied.size());
+		return copied.size();
+	}
+
+	private static SavedAct row(ResultSet rs, int n) throws SQLException {
+		SavedAct act = new SavedAct();
+		act.setUserEmail(rs.getString("user_email"));
+		act.setUserFirstName(rs.getString("user_first_name"));
+		act.setActId(rs.getInt("act_id"));
+		act.setTitle(rs.getString("title"));
+		act.setSummary(rs.getString("summary"));
+		act.setImpact(rs.getString("impact"));
+		act.setPenalties(rs.getString("penalties"));
+		Timestamp savedAt = rs.getTimestamp("saved_at");
+		act.setSavedAt(savedAt == null ? null : new Date(savedAt.getTime()));
+		return act;
+	}
+}
@@ -0,0 +1,126 @@
+package ptu.fsd.nyaysahayak.favorite_service.sharding;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Which shard holds a user's saved acts. Saved acts are only ever read and written per user, so users are spread
+// over the shards of saved-acts.sharding.ring by a consistent hash of their email. Without a ring there is one
+// shard, "default", backed by the regular datasource.
+//
+// While shards are added or removed, saved-acts.sharding.previous-ring names the ring before the change until
+// the rebalancer has run: writes go to the user's shard in the new ring and reads cover both, so a user whose
+// rows are still to be moved sees all of them. Whatever visits several shards visits the one a user moves from
+// before the one they move to; see SavedActRebalancer for why removes depend on it.
+@Component
+public class SavedActShards {
+
+	public static final String DEFAULT = "default";
+
+	private final ShardRing ring;
+	private final ShardRing previous;
+	private final List<String> names;
+
+	// Latency and count of the repository calls made on each shard
+	private final Map<String, Timer> calls = new HashMap<>();
+
+	public SavedActShards(@Value("${saved-acts.sharding.ring:}") List<String> ring,
+			@Value("${saved-acts.sharding.previous-ring:}") List<String> previousRing,
+			@Value("${saved-acts.sharding.vnodes:128}") int vnodes, MeterRegistry registry) {
+		this.ring = new ShardRing(ring.isEmpty() ? List.of(DEFAULT) : ring, vnodes);
+		this.previous = previousRing.isEmpty() ? null : new ShardRing(previousRing, vnodes);
+		// Shards leaving the ring, then those staying, then those joining: users only move off a shard that
+		// leaves or onto one that joins
+		Set<String> all = new LinkedHashSet<>();
+		if (previous != null) {
+			for (String shard : previous.shards()) {
+				if (!this.ring.shards().contains(shard))
+					all.add(shard);
+			}
+			for (String shard : this.ring.shards()) {
+				if (previous.shards().contains(shard))
+					all.add(shard);
+			}
+		}
+		all.addAll(this.ring.shards());
+		this.names = List.copyOf(all);
+		for (String name : names) {
+			calls.put(name, Timer.builder("saved.acts.shard.calls")
+					.description("Saved-act repository calls per shard")
+					.tag("shard", name)
+					.register(registry));
+		}
+	}
+
+	// Every shard that may hold saved acts, those a user may move from before those they may move to
+	public List<String> names() {
+		return names;
+	}
+
+	// The first shard of the ring; connections taken outside on() go there
+	public String home() {
+		return ring.shards().get(0);
+	}
+
+	public boolean inRing(String shard) {
+		return ring.shards().contains(shard);
+	}
+
+	public String ownerOf(String email) {
+		return ring.shardFor(email);
+	}
+
+	// The user's shard, preceded while a rebalance is pending by the one the previous ring gave them if it differs
+	public List<String> shardsOf(String email) {
+		String owner = ownerOf(email);
+		if (previous == null)
+			return List.of(owner);
+		String before = previous.shardFor(email);
+		return before.equals(owner) ? List.of(owner) : List.of(before, owner);
+	}
+
+	public <T> T on(String shard, Supplier<T> call) {
+		Timer timer = calls.get(shard);
+		if (timer == null)
+			throw new IllegalArgumentException("Unknown saved-act shard: " + shard);
+		return timer.record(() -> ShardRoutingDataSource.on(shard, call));
+	}
+
+	public void run(String shard, Runnable call) {
+		on(shard, () -> {
+			call.run();
+			return null;
+		});
+	}
+
+	// Writes go to the user's shard only
+	public <T> T forUser(String email, Supplier<T> call) {
+		return on(ownerOf(email), call);
+	}
+
+	// One result per shard of shardsOf, in that order
+	public <T> List<T> eachForUser(String email, Supplier<T> call) {
+		List<T> results = new ArrayList<>(2);
+		for (String shard : shardsOf(email))
+			results.add(on(shard, call));
+		return results;
+	}
+
+	// One result per shard of names, in that order
+	public <T> List<T> each(Supplier<T> call) {
+		List<T> results = new ArrayList<>(names.size());
+		for (String shard : names)
+			results.add(on(shard, call));
+		return results;
+	}
+}
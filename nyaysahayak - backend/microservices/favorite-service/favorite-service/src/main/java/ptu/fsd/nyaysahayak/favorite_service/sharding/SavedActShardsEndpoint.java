@@ -0,0 +1,34 @@
+package ptu.fsd.nyaysahayak.favorite_service.sharding;
+
+import java.util.List;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import ptu.fsd.nyaysahayak.favorite_service.dto.RebalanceReport;
+import ptu.fsd.nyaysahayak.favorite_service.dto.ShardStats;
+
+// Actuator endpoint for operators, off the public API and only reachable once "shards" is exposed:
+// GET /actuator/shards lists each shard's rows and users, POST /actuator/shards runs the rebalancer
+@Component
+@Endpoint(id = "shards")
+public class SavedActShardsEndpoint {
+
+	private final SavedActRebalancer rebalancer;
+
+	public SavedActShardsEndpoint(SavedActRebalancer rebalancer) {
+		this.rebalancer = rebalancer;
+	}
+
+	@ReadOperation
+	public List<ShardStats> shards() {
+		return rebalancer.stats();
+	}
+
+	@WriteOperation
+	public RebalanceReport rebalance() {
+		return rebalancer.rebalance();
+	}
+}
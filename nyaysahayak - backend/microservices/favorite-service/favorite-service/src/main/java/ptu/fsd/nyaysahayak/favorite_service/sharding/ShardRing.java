@@ -0,0 +1,51 @@
+package ptu.fsd.nyaysahayak.favorite_service.sharding;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+// Consistent-hash ring of shard names. Every shard owns `vnodes` points on a 64-bit ring and a key belongs to
+// the shard of the first point at or after the key's hash, so adding a shard to a ring of N moves about
+// 1/(N+1) of the keys, all of them to the new shard, and removing one moves only the keys it owned.
+public final class ShardRing {
+
+	private final List<String> shards;
+	private final NavigableMap<Long, String> points = new TreeMap<>();
+
+	public ShardRing(List<String> shards, int vnodes) {
+		if (shards.isEmpty() || vnodes < 1)
+			throw new IllegalArgumentException("A shard ring needs at least one shard and one point per shard");
+		this.shards = List.copyOf(shards);
+		for (String shard : shards) {
+			for (int i = 0; i < vnodes; i++)
+				points.put(hash(shard + "#" + i), shard);
+		}
+	}
+
+	public String shardFor(String key) {
+		Map.Entry<Long, String> point = points.ceilingEntry(hash(key));
+		return (point != null ? point : points.firstEntry()).getValue();
+	}
+
+	public List<String> shards() {
+		return shards;
+	}
+
+	// FNV-1a over the UTF-8 bytes, finished with MurmurHash3's 64-bit mixer so similar keys land far apart;
+	// unlike String.hashCode it is the same in every JVM, which every instance routing a user relies on
+	static long hash(String key) {
+		long h = 0xcbf29ce484222325L;
+		for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+			h ^= b & 0xff;
+			h *= 0x100000001b3L;
+		}
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+}
@@ -0,0 +1,53 @@
+package ptu.fsd.nyaysahayak.favorite_service.sharding;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+// Hands out connections of the shard selected for the current thread with on(); a connection taken outside
+// on() comes from the home shard, which also holds the tables that are not sharded.
+//
+// The shard is fixed when a connection is taken, so on() must wrap the whole transaction: inside a transaction
+// the bound connection is reused whatever shard a nested on() names.
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+	private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+	public ShardRoutingDataSource(Map<String, DataSource> shards, String home) {
+		setTargetDataSources(new HashMap<>(shards));
+		setDefaultTargetDataSource(shards.get(home));
+		// A shard name missing from the map is a configuration error, not a reason to write to the home shard
+		setLenientFallback(false);
+		afterPropertiesSet();
+	}
+
+	public static <T> T on(String shard, Supplier<T> call) {
+		String previous = CURRENT.get();
+		CURRENT.set(shard);
+		try {
+			return call.get();
+		} finally {
+			if (previous == null)
+				CURRENT.remove();
+			else
+				CURRENT.set(previous);
+		}
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		return CURRENT.get();
+	}
+
+	// Closes the shard pools on shutdown
+	public void close() throws Exception {
+		for (DataSource shard : getResolvedDataSources().values()) {
+			if (shard instanceof AutoCloseable pool)
+				pool.close();
+		}
+	}
+}
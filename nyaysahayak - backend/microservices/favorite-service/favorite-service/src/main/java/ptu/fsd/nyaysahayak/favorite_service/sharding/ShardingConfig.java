@@ -0,0 +1,88 @@
+package ptu.fsd.nyaysahayak.favorite_service.sharding;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.relational.SchemaManager;
+import org.hibernate.tool.schema.spi.SchemaManagementException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+
+// Replaces the favorites datasource with one connection pool per shard once saved-acts.sharding.ring is set:
+//
+//   saved-acts.sharding.ring=shard0,shard1
+//   saved-acts.sharding.shards.shard0.url=jdbc:postgresql://favorite-db-0:5432/nyaysahayak_favorites
+//   saved-acts.sharding.shards.shard0.username=... (and password, then the same for shard1)
+//
+// Each pool reports its hikaricp.* metrics under its own pool name. Keep the home shard first in the ring when
+// changing it: it holds the act-change cursor, and Hibernate manages the schema on it at startup.
+@Configuration
+@ConditionalOnProperty("saved-acts.sharding.ring")
+public class ShardingConfig {
+
+	private static final Logger log = LoggerFactory.getLogger(ShardingConfig.class);
+
+	@Bean(destroyMethod = "close")
+	@Primary
+	public ShardRoutingDataSource dataSource(Environment environment, SavedActShards shards, MeterRegistry registry,
+			@Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize) {
+		Map<String, DataSourceProperties> configured = Binder.get(environment)
+				.bind("saved-acts.sharding.shards", Bindable.mapOf(String.class, DataSourceProperties.class))
+				.orElse(Map.of());
+		Map<String, DataSource> pools = new LinkedHashMap<>();
+		for (String name : shards.names()) {
+			DataSourceProperties properties = configured.get(name);
+			if (properties == null)
+				throw new IllegalStateException("No datasource configured for saved-act shard " + name);
+			HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+			pool.setPoolName("saved-acts-" + name);
+			pool.setMaximumPoolSize(poolSize);
+			pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+			pools.put(name, pool);
+		}
+		return new ShardRoutingDataSource(pools, shards.home());
+	}
+
+	// Hibernate's schema management only sees the home shard; a shard whose schema does not validate, such as
+	// one just added to the ring, gets the mapped tables created before any scheduled job or request reaches it
+	@Bean
+	public SmartInitializingSingleton shardSchemas(EntityManagerFactory entityManagerFactory, SavedActShards shards,
+			@Value("${spring.jpa.hibernate.ddl-auto:none}") String ddlAuto) {
+		return () -> {
+			if (ddlAuto.equals("none") || ddlAuto.equals("validate"))
+				return;
+			SchemaManager schema = entityManagerFactory.unwrap(SessionFactory.class).getSchemaManager();
+			for (String shard : shards.names()) {
+				if (shard.equals(shards.home()))
+					continue;
+				shards.run(shard, () -> {
+					try {
+						schema.validateMappedObjects();
+					} catch (SchemaManagementException ex) {
+						log.info("Creating the saved-act tables on shard {}: {}", shard, ex.getMessage());
+						schema.exportMappedObjects(false);
+					}
+				});
+			}
+		};
+	}
+}
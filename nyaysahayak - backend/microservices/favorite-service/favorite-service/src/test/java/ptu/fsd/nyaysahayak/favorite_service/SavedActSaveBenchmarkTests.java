@@ -0,0 +1,175 @@
+package ptu.fsd.nyaysahayak.favorite_service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ptu.fsd.nyaysahayak.favorite_service.model.SavedAct;
+import ptu.fsd.nyaysahayak.favorite_service.repository.SavedActRepo;
+import ptu.fsd.nyaysahayak.favorite_service.services.ActMetadataCache;
+import ptu.fsd.nyaysahayak.favorite_service.services.ActServiceClient;
+import ptu.fsd.nyaysahayak.favorite_service.services.SavedActCounters;
+import ptu.fsd.nyaysahayak.favorite_service.services.SavedActIds;
+import ptu.fsd.nyaysahayak.favorite_service.services.SavedActService;
+import ptu.fsd.nyaysahayak.favorite_service.services.SavedActWriteBehind;
+import ptu.fsd.nyaysahayak.favorite_service.sharding.SavedActShards;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+// 1,000 concurrent saves against an act-service stand-in that answers after 200 ms: once the way the
+// blocking controller ran them (Tomcat's 200 request threads each waiting on the lookup) and once through
+// the non-blocking pipeline. Run with: ./mvnw test -Dtest=SavedActSaveBenchmarkTests -Dbenchmark=true
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class SavedActSaveBenchmarkTests {
+
+	private static final Logger log = LoggerFactory.getLogger(SavedActSaveBenchmarkTests.class);
+
+	private static final int SAVES = 1_000;
+	private static final int TOMCAT_THREADS = 200;
+	private static final long ACT_SERVICE_DELAY_MS = 200;
+
+	private HttpServer actService;
+	private ExecutorService actServiceThreads;
+	private Scheduler jdbc;
+	private SavedActService service;
+	private int nextActId = 1;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		actServiceThreads = Executors.newFixedThreadPool(SAVES);
+		actService = HttpServer.create(new InetSocketAddress("localhost", 0), SAVES);
+		actService.createContext("/api/acts/", exchange -> {
+			try {
+				Thread.sleep(ACT_SERVICE_DELAY_MS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			String id = exchange.getRequestURI().getPath().substring("/api/acts/".length());
+			byte[] body = ("{\"id\":" + id + ",\"title\":\"Act " + id + "\",\"summary\":\"Summary\",\"impact\":\"Impact\",\"penalties\":\"None\"}")
+					.getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		});
+		actService.setExecutor(actServiceThreads);
+		actService.start();
+
+		SavedActRepo repo = mock(SavedActRepo.class);
+		when(repo.insertIfAbsent(any(SavedAct.class))).thenAnswer(invocation -> Optional.of(invocation.getArgument(0)));
+
+		jdbc = Schedulers.newBoundedElastic(10, Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE, "jdbc");
+		// Every save is for an act not seen before (see nextBatch), so each one misses the near-cache. The bulkhead
+		// admits every save and hedging is effectively off, so each save makes exactly one act-service call.
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		ActServiceClient client = new ActServiceClient("http://localhost:" + actService.getAddress().getPort(),
+				WebClient.builder().clientConnector(WebClientConfig.actServiceConnector(500)), registry,
+				30_000, 30_000, SAVES, 50, 30, 10_000, 24);
+		ActMetadataCache actCache = new ActMetadataCache(client, registry, 10_000, 3600, 600, 30);
+		SavedActShards shards = new SavedActShards(List.of(), List.of(), 128, registry);
+		SavedActWriteBehind writeBehind = new SavedActWriteBehind(repo, shards, null, registry, event -> {}, false, "unused", 0, 0, 0, 0);
+		service = new SavedActService();
+		ReflectionTestUtils.setField(service, "repo", repo);
+		ReflectionTestUtils.setField(service, "actCache", actCache);
+		ReflectionTestUtils.setField(service, "jdbcScheduler", jdbc);
+		ReflectionTestUtils.setField(service, "savedIds", new SavedActIds(repo, shards, writeBehind, registry, 10_000, 60));
+		ReflectionTestUtils.setField(service, "writeBehind", writeBehind);
+		ReflectionTestUtils.setField(service, "shards", shards);
+		ReflectionTestUtils.setField(service, "counters", new SavedActCounters(repo, null, shards, registry, false));
+	}
+
+	@AfterEach
+	void tearDown() {
+		actService.stop(0);
+		actServiceThreads.shutdownNow();
+		jdbc.dispose();
+	}
+
+	@Test
+	void blockingOnRequestThreads() throws Exception {
+		ExecutorService tomcat = Executors.newFixedThreadPool(TOMCAT_THREADS);
+		try {
+			Run run = () -> {
+				List<Future<SavedAct>> saves = new ArrayList<>();
+				int first = nextBatch();
+				for (int i = 0; i < SAVES; i++) {
+					int actId = first + i;
+					saves.add(tomcat.submit(() -> service.saveActForUser(email(actId), "User", actId).block()));
+				}
+				for (Future<SavedAct> save : saves)
+					assertNotNull(save.get());
+			};
+			run.run(); // warm-up
+			report("blocking, " + TOMCAT_THREADS + " request threads", time(run));
+		} finally {
+			tomcat.shutdownNow();
+		}
+	}
+
+	@Test
+	void nonBlockingPipeline() throws Exception {
+		Run run = () -> {
+			List<SavedAct> saved = Flux.range(nextBatch(), SAVES)
+					.flatMap(actId -> service.saveActForUser(email(actId), "User", actId), SAVES)
+					.collectList()
+					.block();
+			assertEquals(SAVES, saved.size());
+		};
+		run.run(); // warm-up
+		report("non-blocking", time(run));
+	}
+
+	// First act id of a run; the warm-up and the measured run never share acts
+	private int nextBatch() {
+		int first = nextActId;
+		nextActId += SAVES;
+		return first;
+	}
+
+	private static String email(int actId) {
+		return "user" + actId + "@example.com";
+	}
+
+	private static long time(Run run) throws Exception {
+		long start = System.nanoTime();
+		run.run();
+		return System.nanoTime() - start;
+	}
+
+	private static void report(String mode, long nanos) {
+		log.info("{}: {} saves in {} ms, {} saves/s (act-service latency {} ms)", mode, SAVES, nanos / 1_000_000,
+				Math.round(SAVES * 1e9 / nanos), ACT_SERVICE_DELAY_MS);
+	}
+
+	@FunctionalInterface
+	private interface Run {
+		void run() throws Exception;
+	}
+}
@@ -0,0 +1,71 @@
+package ptu.fsd.nyaysahayak.favorite_service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ptu.fsd.nyaysahayak.favorite_service.repository.SavedActSchemaMigration;
+import ptu.fsd.nyaysahayak.favorite_service.sharding.SavedActShards;
+
+// An in-memory H2 database stands in for a favorite-db created before the unique constraint was mapped
+class SavedActSchemaMigrationTests {
+
+	private static final String SCHEMA = "create table saved_acts (id int generated by default as identity primary key, "
+			+ "user_email varchar(255) not null, user_first_name varchar(255) not null, act_id int not null, "
+			+ "title varchar(1000) not null, saved_at timestamp)";
+	private static final String INSERT = "insert into saved_acts (user_email, user_first_name, act_id, title) values (?, 'User', ?, ?)";
+
+	private JdbcDataSource database;
+	private JdbcTemplate jdbc;
+	private SavedActSchemaMigration migration;
+
+	@BeforeEach
+	void setUp() {
+		database = new JdbcDataSource();
+		database.setURL("jdbc:h2:mem:favorites;DB_CLOSE_DELAY=-1");
+		jdbc = new JdbcTemplate(database);
+		migration = new SavedActSchemaMigration(new SavedActShards(List.of(), List.of(), 128, new SimpleMeterRegistry()),
+				database, new DataSourceTransactionManager(database));
+	}
+
+	@AfterEach
+	void tearDown() {
+		jdbc.execute("shutdown");
+	}
+
+	@Test
+	void duplicatesAreDeletedKeepingTheFirstSaveAndTheConstraintIsAdded() {
+		jdbc.execute(SCHEMA);
+		jdbc.update(INSERT, "a@example.com", 1, "first");
+		jdbc.update(INSERT, "a@example.com", 1, "second");
+		jdbc.update(INSERT, "a@example.com", 2, "other act");
+		jdbc.update(INSERT, "b@example.com", 1, "other user");
+		jdbc.update(INSERT, "a@example.com", 1, "third");
+
+		migration.afterSingletonsInstantiated();
+
+		assertEquals(List.of("first", "other act", "other user"), jdbc.queryForList("select title from saved_acts order by id", String.class));
+		assertThrows(DuplicateKeyException.class, () -> jdbc.update(INSERT, "a@example.com", 1, "again"));
+
+		// Nothing left to do on the next start
+		migration.afterSingletonsInstantiated();
+		assertEquals(3, jdbc.queryForObject("select count(*) from saved_acts", Integer.class));
+	}
+
+	@Test
+	void aMissingTableIsLeftToHibernate() {
+		migration.afterSingletonsInstantiated();
+
+		assertEquals(0, jdbc.queryForObject("select count(*) from information_schema.tables where lower(table_name) = 'saved_acts'", Integer.class));
+	}
+}
@@ -0,0 +1,147 @@
+package ptu.fsd.nyaysahayak.favorite_service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ptu.fsd.nyaysahayak.favorite_service.model.SavedAct;
+import ptu.fsd.nyaysahayak.favorite_service.repository.SavedActRepo;
+import ptu.fsd.nyaysahayak.favorite_service.services.SavedActWriteBehind;
+import ptu.fsd.nyaysahayak.favorite_service.services.SavedActWriteBehind.Applied;
+import ptu.fsd.nyaysahayak.favorite_service.services.SavedActWriteBehind.Outcome;
+import ptu.fsd.nyaysahayak.favorite_service.sharding.SavedActShards;
+
+// The write-behind against a mocked repository; stop() runs the final flush, so each test sees exactly one
+class SavedActWriteBehindTests {
+
+	private static final String EMAIL = "user@example.com";
+
+	@TempDir
+	Path journal;
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final SavedActRepo repo = mock(SavedActRepo.class);
+	private final List<List<Integer>> inserts = new ArrayList<>();
+	private final List<Object> events = new ArrayList<>();
+
+	@Test
+	void aRejectedWriteIsDeadLetteredAndTheRestOfTheBatchCommits() throws Exception {
+		when(repo.insertAllIfAbsent(anyList())).thenAnswer(call -> {
+			List<SavedAct> acts = call.getArgument(0);
+			if (acts.stream().anyMatch(act -> act.getTitle() == null))
+				throw new DataIntegrityViolationException("title is null");
+			List<Integer> ids = acts.stream().map(SavedAct::getActId).toList();
+			inserts.add(ids);
+			return ids;
+		});
+		SavedActWriteBehind writeBehind = start();
+		for (int actId = 1; actId <= 3; actId++)
+			assertEquals(Outcome.QUEUED, writeBehind.save(act(actId, actId == 2 ? null : "Act " + actId)));
+
+		writeBehind.stop();
+
+		assertTrue(writeBehind.pendingFor(EMAIL).isEmpty());
+		assertEquals(2, inserts.size());
+		assertEquals(1, registry.get("saved.acts.write-behind.dead-letters").counter().count());
+		assertTrue(Files.size(journal.resolve("dead-letter.log")) > 0);
+		assertEquals(List.of(new Applied(List.of(1, 3), List.of(), Set.of(EMAIL))), events);
+	}
+
+	@Test
+	void onlyTheRowsAFlushInsertedAreReportedSaved() throws Exception {
+		// Act 2 was saved on another instance, so the insert skips it
+		when(repo.insertAllIfAbsent(anyList())).thenAnswer(call -> {
+			List<SavedAct> acts = call.getArgument(0);
+			return acts.stream().map(SavedAct::getActId).filter(actId -> actId != 2).toList();
+		});
+		SavedActWriteBehind writeBehind = start();
+		assertEquals(Outcome.QUEUED, writeBehind.save(act(1, "Act 1")));
+		assertEquals(Outcome.QUEUED, writeBehind.save(act(2, "Act 2")));
+
+		writeBehind.stop();
+
+		assertEquals(List.of(new Applied(List.of(1), List.of(), Set.of())), events);
+	}
+
+	@Test
+	void writesStayPendingWhileTheDatabaseIsUnreachable() throws Exception {
+		when(repo.insertAllIfAbsent(anyList())).thenThrow(new CannotGetJdbcConnectionException("down"));
+		SavedActWriteBehind writeBehind = start();
+		writeBehind.save(act(1, "Act 1"));
+		writeBehind.save(act(2, "Act 2"));
+
+		writeBehind.stop();
+
+		assertEquals(2, writeBehind.pendingFor(EMAIL).size());
+		assertEquals(0, registry.get("saved.acts.write-behind.dead-letters").counter().count());
+		assertFalse(Files.exists(journal.resolve("dead-letter.log")));
+		assertTrue(events.isEmpty());
+	}
+
+	@Test
+	void aDirectRemoveIsNotUndoneByReplayingAnOlderSave() throws Exception {
+		// Act 1 commits and act 2 stays pending, so the segment holding the save of act 1 is kept
+		when(repo.insertAllIfAbsent(anyList())).thenAnswer(call -> {
+			List<SavedAct> acts = call.getArgument(0);
+			if (acts.stream().anyMatch(act -> act.getActId() == 2))
+				throw new DataAccessResourceFailureException("down");
+			return acts.stream().map(SavedAct::getActId).toList();
+		});
+		SavedActWriteBehind writeBehind = start(2);
+		writeBehind.save(act(1, "Act 1"));
+		writeBehind.save(act(2, "Act 2"));
+		for (int i = 0; i < 100 && writeBehind.pendingFor(EMAIL).containsKey(1); i++)
+			Thread.sleep(50);
+		assertEquals(Set.of(2), writeBehind.pendingFor(EMAIL).keySet());
+		writeBehind.journalRemove(EMAIL, 1);
+		writeBehind.stop();
+
+		SavedActWriteBehind restarted = start(2);
+		restarted.stop();
+
+		verify(repo).deleteAllByUserEmailAndActIds(EMAIL, List.of(1));
+	}
+
+	private SavedActWriteBehind start() throws Exception {
+		return start(1000);
+	}
+
+	private SavedActWriteBehind start(int batchSize) throws Exception {
+		SavedActShards shards = new SavedActShards(List.of(), List.of(), 128, registry);
+		TransactionTemplate transaction = new TransactionTemplate(mock(PlatformTransactionManager.class));
+		SavedActWriteBehind writeBehind = new SavedActWriteBehind(repo, shards, transaction, registry, events::add, true,
+				journal.toString(), 1000, batchSize, 60_000, 20);
+		writeBehind.start();
+		return writeBehind;
+	}
+
+	private static SavedAct act(int actId, String title) {
+		SavedAct act = new SavedAct();
+		act.setUserEmail(EMAIL);
+		act.setUserFirstName("User");
+		act.setActId(actId);
+		act.setTitle(title);
+		act.setSavedAt(new Date());
+		return act;
+	}
+}
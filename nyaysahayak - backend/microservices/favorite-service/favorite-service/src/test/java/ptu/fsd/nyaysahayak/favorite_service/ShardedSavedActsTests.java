@@ -0,0 +1,225 @@
+package ptu.fsd.nyaysahayak.favorite_service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import javax.sql.DataSource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ptu.fsd.nyaysahayak.favorite_service.dto.RebalanceReport;
+import ptu.fsd.nyaysahayak.favorite_service.sharding.SavedActRebalancer;
+import ptu.fsd.nyaysahayak.favorite_service.sharding.SavedActShards;
+import ptu.fsd.nyaysahayak.favorite_service.sharding.ShardRoutingDataSource;
+
+// Three in-memory H2 databases stand in for the favorite-db shards, so routing and rebalancing run without
+// Postgres or a Spring context
+class ShardedSavedActsTests {
+
+	private static final List<String> SHARDS = List.of("shard0", "shard1", "shard2");
+	private static final int USERS = 300;
+	private static final int ACTS_PER_USER = 3;
+
+	private static final String SCHEMA = "create table saved_acts (id int generated by default as identity primary key, "
+			+ "user_email varchar(255) not null, user_first_name varchar(255) not null, act_id int not null, "
+			+ "title varchar(1000) not null, summary varchar(2000), impact varchar(2000), penalties varchar(2000), "
+			+ "saved_at timestamp, constraint uk_saved_acts_user_act unique (user_email, act_id))";
+	private static final String INSERT = "insert into saved_acts (user_email, user_first_name, act_id, title, saved_at) "
+			+ "values (?, 'User', ?, 'Act', ?)";
+
+	private final Map<String, DataSource> databases = new LinkedHashMap<>();
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private JdbcTemplate jdbc;
+	private DataSourceTransactionManager transactions;
+
+	@BeforeEach
+	void setUp() {
+		for (String shard : SHARDS) {
+			JdbcDataSource database = new JdbcDataSource();
+			database.setURL("jdbc:h2:mem:" + shard + ";DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000");
+			new JdbcTemplate(database).execute(SCHEMA);
+			databases.put(shard, database);
+		}
+		ShardRoutingDataSource routing = new ShardRoutingDataSource(databases, SHARDS.get(0));
+		jdbc = new JdbcTemplate(routing);
+		transactions = new DataSourceTransactionManager(routing);
+	}
+
+	@AfterEach
+	void tearDown() {
+		for (DataSource database : databases.values())
+			new JdbcTemplate(database).execute("shutdown");
+	}
+
+	@Test
+	void addingAShardMovesOnlyItsShareOfUsers() {
+		SavedActShards three = shards(SHARDS, List.of());
+		SavedActShards four = shards(List.of("shard0", "shard1", "shard2", "shard3"), List.of());
+		int users = 10_000;
+		int moved = 0;
+		for (int i = 0; i < users; i++) {
+			String before = three.ownerOf(email(i));
+			String after = four.ownerOf(email(i));
+			if (!before.equals(after)) {
+				assertEquals("shard3", after);
+				moved++;
+			}
+		}
+		assertTrue(moved > users * 0.15 && moved < users * 0.35, "moved " + moved + " of " + users);
+	}
+
+	@Test
+	void queriesRunOnTheUsersShard() {
+		SavedActShards shards = shards(SHARDS, List.of());
+		saveAll(shards);
+
+		for (Map.Entry<String, DataSource> database : databases.entrySet()) {
+			List<String> users = new JdbcTemplate(database.getValue()).queryForList("select distinct user_email from saved_acts", String.class);
+			assertTrue(users.size() > USERS / 6, database.getKey() + " holds " + users.size() + " users");
+			for (String email : users)
+				assertEquals(database.getKey(), shards.ownerOf(email));
+		}
+		for (int i = 0; i < USERS; i++)
+			assertEquals(ACTS_PER_USER, countOf(shards, email(i)));
+	}
+
+	@Test
+	void rebalanceMovesUsersToTheShardAddedToTheRing() {
+		saveAll(shards(SHARDS.subList(0, 2), List.of()));
+		SavedActShards shards = shards(SHARDS, SHARDS.subList(0, 2));
+
+		// Before the move every user is still found, on whichever shard of theirs holds the rows
+		for (int i = 0; i < USERS; i++)
+			assertEquals(ACTS_PER_USER, countOf(shards, email(i)));
+
+		SavedActRebalancer rebalancer = new SavedActRebalancer(shards, jdbc.getDataSource(), transactions, registry, 50);
+		RebalanceReport report = rebalancer.rebalance();
+		assertTrue(report.getUsersMoved() > 0);
+		assertEquals(0, report.getUsersFailed());
+		assertEquals(report.getUsersMoved() * ACTS_PER_USER, report.getRowsMoved());
+		assertEquals(report.getRowsMoved(), (long) registry.get("saved.acts.rebalance.rows").counters().stream()
+				.mapToDouble(Counter::count).sum());
+
+		Set<String> seen = new HashSet<>();
+		long rows = 0;
+		for (Map.Entry<String, DataSource> database : databases.entrySet()) {
+			JdbcTemplate shard = new JdbcTemplate(database.getValue());
+			rows += shard.queryForObject("select count(*) from saved_acts", Long.class);
+			for (String email : shard.queryForList("select distinct user_email from saved_acts", String.class)) {
+				assertEquals(database.getKey(), shards.ownerOf(email));
+				assertTrue(seen.add(email), email + " is on more than one shard");
+			}
+		}
+		assertEquals(USERS * ACTS_PER_USER, rows);
+		assertEquals(USERS, seen.size());
+
+		assertEquals(0, rebalancer.rebalance().getUsersMoved());
+	}
+
+	@Test
+	void aRemoveRacingTheMoveOfItsUserIsNotUndone() throws Exception {
+		SavedActShards before = shards(SHARDS.subList(0, 2), List.of());
+		SavedActShards shards = shards(SHARDS, SHARDS.subList(0, 2));
+		String email = IntStream.range(0, USERS).mapToObj(ShardedSavedActsTests::email)
+				.filter(e -> !before.ownerOf(e).equals(shards.ownerOf(e)))
+				.findFirst().orElseThrow();
+		Timestamp savedAt = new Timestamp(System.currentTimeMillis());
+		for (int actId = 1; actId <= ACTS_PER_USER; actId++) {
+			int id = actId;
+			before.forUser(email, () -> jdbc.update(INSERT, email, id, savedAt));
+		}
+
+		// The move stops once it holds the old shard's rows, before its copy reaches the new shard
+		String to = shards.ownerOf(email);
+		CountDownLatch copying = new CountDownLatch(1);
+		CountDownLatch resume = new CountDownLatch(1);
+		Map<String, DataSource> gated = new LinkedHashMap<>(databases);
+		gated.put(to, new DelegatingDataSource(databases.get(to)) {
+			@Override
+			public Connection getConnection() throws SQLException {
+				if (copying.getCount() > 0) {
+					copying.countDown();
+					try {
+						resume.await();
+					} catch (InterruptedException ex) {
+						Thread.currentThread().interrupt();
+					}
+				}
+				return super.getConnection();
+			}
+		});
+		ShardRoutingDataSource routing = new ShardRoutingDataSource(gated, SHARDS.get(0));
+		JdbcTemplate gatedJdbc = new JdbcTemplate(routing);
+		SavedActRebalancer rebalancer = new SavedActRebalancer(shards, routing, new DataSourceTransactionManager(routing), registry, 50);
+
+		ExecutorService threads = Executors.newFixedThreadPool(2);
+		try {
+			Future<RebalanceReport> move = threads.submit(rebalancer::rebalance);
+			assertTrue(copying.await(10, TimeUnit.SECONDS));
+			Future<Integer> remove = threads.submit(() -> shards.eachForUser(email,
+					() -> gatedJdbc.update("delete from saved_acts where user_email = ? and act_id = 1", email))
+					.stream().mapToInt(Integer::intValue).sum());
+			Thread.sleep(200);
+			resume.countDown();
+
+			assertEquals(1, move.get(10, TimeUnit.SECONDS).getUsersMoved());
+			assertEquals(1, remove.get(10, TimeUnit.SECONDS));
+		} finally {
+			resume.countDown();
+			threads.shutdownNow();
+		}
+
+		for (Map.Entry<String, DataSource> database : databases.entrySet()) {
+			List<Integer> actIds = new JdbcTemplate(database.getValue())
+					.queryForList("select act_id from saved_acts where user_email = ? order by act_id", Integer.class, email);
+			assertEquals(database.getKey().equals(to) ? List.of(2, 3) : List.of(), actIds, database.getKey());
+		}
+	}
+
+	private SavedActShards shards(List<String> ring, List<String> previousRing) {
+		return new SavedActShards(ring, previousRing, 128, registry);
+	}
+
+	private void saveAll(SavedActShards shards) {
+		Timestamp savedAt = new Timestamp(System.currentTimeMillis());
+		for (int i = 0; i < USERS; i++) {
+			String email = email(i);
+			for (int actId = 1; actId <= ACTS_PER_USER; actId++) {
+				int id = actId;
+				shards.forUser(email, () -> jdbc.update(INSERT, email, id, savedAt));
+			}
+		}
+	}
+
+	private int countOf(SavedActShards shards, String email) {
+		return shards.eachForUser(email, () -> jdbc.queryForObject("select count(*) from saved_acts where user_email = ?", Integer.class, email))
+				.stream().mapToInt(Integer::intValue).sum();
+	}
+
+	private static String email(int i) {
+		return "user" + i + "@example.com";
+	}
+}
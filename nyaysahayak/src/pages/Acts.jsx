@@ -4,18 +4,27 @@ import ActDetailView from '../components/ActDetailView.jsx';
 import { motion, AnimatePresence } from 'framer-motion';
 
 
+const PAGE_SIZE = 50;
+const SAVED_PAGE_SIZE = 20;
+
 const Acts = () => {
   const [searchTerm, setSearchTerm] = useState('');
   const [category, setCategory] = useState('all');
   const [acts, setActs] = useState([]);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState(null);
-  const [selectedActId, setSelectedActId] = useState(null);
+  const [selectedAct, setSelectedAct] = useState(null);
+  const [nextCursor, setNextCursor] = useState(null);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [savedActs, setSavedActs] = useState([]);
+  const [savedCursor, setSavedCursor] = useState(null);
+  const [savedCount, setSavedCount] = useState(0);
+  const [loadingMoreSaved, setLoadingMoreSaved] = useState(false);
   const [savedActIds, setSavedActIds] = useState(new Set());
   const [savingStates, setSavingStates] = useState(new Map());
   const [activeTab, setActiveTab] = useState('all-acts');
   const [currentUser, setCurrentUser] = useState(null);
+  const [searchHits, setSearchHits] = useState(null);
 
   useEffect(() => {
     const getUserFromAuth = () => {
@@ -39,7 +48,7 @@ const Acts = () => {
 
   useEffect(() => {
     fetchActs();
-  }, []);
+  }, [category]);
 
   useEffect(() => {
     if (currentUser?.email) {
@@ -47,22 +56,71 @@ const Acts = () => {
     }
   }, [currentUser]);
 
+  useEffect(() => {
+    const query = searchTerm.trim();
+    if (!query) {
+      setSearchHits(null);
+      return;
+    }
+
+    const controller = new AbortController();
+    const timer = setTimeout(async () => {
+      try {
+        const response = await fetch(
+          `http://localhost:8080/api/acts/search?q=${encodeURIComponent(query)}&limit=100${categoryParam}`,
+          { signal: controller.signal }
+        );
+        if (response.ok) {
+          let hits = await response.json();
+          // Misspelt or differently transliterated names find nothing exactly, so retry typo-tolerant
+          if (hits.length === 0) {
+            const fuzzy = await fetch(
+              `http://localhost:8080/api/acts/search/fuzzy?q=${encodeURIComponent(query)}&limit=100${categoryParam}`,
+              { signal: controller.signal }
+            );
+            if (fuzzy.ok) {
+              hits = (await fuzzy.json()).items;
+            }
+          }
+          setSearchHits(hits);
+        }
+      } catch (err) {
+        if (err.name !== 'AbortError') {
+          console.error('Error searching acts:', err);
+        }
+      }
+    }, 200);
+
+    return () => {
+      clearTimeout(timer);
+      controller.abort();
+    };
+  }, [searchTerm, category]);
+
+  const categoryParam = category === 'all' ? '' : `&category=${encodeURIComponent(category)}`;
+
+  const fetchActPage = async (after) => {
+    const response = await fetch(`http://localhost:8080/api/acts?after=${after}&limit=${PAGE_SIZE}${categoryParam}`);
+    
+    if (!response.ok) {
+      throw new Error(`Failed to fetch acts: ${response.status} ${response.statusText}`);
+    }
+    
+    const contentType = response.headers.get('content-type');
+    if (!contentType || !contentType.includes('application/json')) {
+      throw new Error('Received non-JSON response from server');
+    }
+    
+    return response.json();
+  };
+
   const fetchActs = async () => {
     try {
       setLoading(true);
-      const response = await fetch('http://localhost:8080/api/acts');
-      
-      if (!response.ok) {
-        throw new Error(`Failed to fetch acts: ${response.status} ${response.statusText}`);
-      }
-      
-      const contentType = response.headers.get('content-type');
-      if (!contentType || !contentType.includes('application/json')) {
-        throw new Error('Received non-JSON response from server');
-      }
-      
-      const data = await response.json();
-      setActs(data);
+      setError(null);
+      const page = await fetchActPage(0);
+      setActs(page.items);
+      setNextCursor(page.nextCursor);
     } catch (err) {
       console.error('Error fetching acts:', err);
       setError(err.message || 'Failed to load acts. Please try again later.');
@@ -71,22 +129,94 @@ const Acts = () => {
     }
   };
 
+  const fetchMoreActs = async () => {
+    if (nextCursor === null) return;
+
+    try {
+      setLoadingMore(true);
+      const page = await fetchActPage(nextCursor);
+      setActs(prev => [...prev, ...page.items]);
+      setNextCursor(page.nextCursor);
+    } catch (err) {
+      console.error('Error fetching more acts:', err);
+      alert('Failed to load more acts. Please try again.');
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
+  const savedActsUrl = () => `http://localhost:8080/api/saved-acts/user/${encodeURIComponent(currentUser.email)}`;
+
+  // First page of saved-act cards, newest first, plus the total for the badges
   const fetchSavedActs = async () => {
     if (!currentUser?.email) return;
 
     try {
-      const response = await fetch(`http://localhost:8080/api/saved-acts/user/${encodeURIComponent(currentUser.email)}`);
-      if (response.ok) {
-        const savedActsData = await response.json();
-        setSavedActs(savedActsData);
-        const savedActIds = new Set(savedActsData.map(savedAct => savedAct.actId));
-        setSavedActIds(savedActIds);
+      const [pageResponse, countResponse] = await Promise.all([
+        fetch(`${savedActsUrl()}/page?limit=${SAVED_PAGE_SIZE}`),
+        fetch(`${savedActsUrl()}/count`)
+      ]);
+      if (pageResponse.ok) {
+        const page = await pageResponse.json();
+        setSavedActs(page.items);
+        setSavedCursor(page.nextCursor);
+      }
+      if (countResponse.ok) {
+        setSavedCount((await countResponse.json()).count);
       }
     } catch (error) {
       console.error('Error fetching saved acts:', error);
     }
   };
 
+  const fetchMoreSavedActs = async () => {
+    if (savedCursor === null) return;
+
+    try {
+      setLoadingMoreSaved(true);
+      const response = await fetch(`${savedActsUrl()}/page?before=${encodeURIComponent(savedCursor)}&limit=${SAVED_PAGE_SIZE}`);
+      if (!response.ok) {
+        throw new Error(`Failed to fetch saved acts: ${response.status} ${response.statusText}`);
+      }
+      const page = await response.json();
+      setSavedActs(prev => [...prev, ...page.items]);
+      setSavedCursor(page.nextCursor);
+    } catch (error) {
+      console.error('Error fetching more saved acts:', error);
+      alert('Failed to load more saved acts. Please try again.');
+    } finally {
+      setLoadingMoreSaved(false);
+    }
+  };
+
+  // Saved flags for the acts on screen, in one request
+  const fetchSavedFlags = async (actIds, signal) => {
+    if (!currentUser?.email || actIds.length === 0) return;
+
+    try {
+      const response = await fetch(`${savedActsUrl()}/is-saved`, {
+        method: 'POST',
+        headers: {
+          'Content-Type': 'application/json',
+        },
+        body: JSON.stringify(actIds),
+        signal
+      });
+      if (response.ok) {
+        const saved = new Set(await response.json());
+        setSavedActIds(prev => {
+          const next = new Set(prev);
+          actIds.forEach(id => saved.has(id) ? next.add(id) : next.delete(id));
+          return next;
+        });
+      }
+    } catch (error) {
+      if (error.name !== 'AbortError') {
+        console.error('Error fetching saved flags:', error);
+      }
+    }
+  };
+
   const handleSaveAct = async (actId) => {
     if (!currentUser?.email) {
       alert('Please log in to save acts');
@@ -110,6 +240,7 @@ const Acts = () => {
 
       if (response.ok) {
         setSavedActIds(prev => new Set(prev).add(actId));
+        setSavedCount(prev => prev + 1);
         setSavingStates(prev => new Map(prev).set(actId, 'saved'));
         
         await fetchSavedActs();
@@ -160,6 +291,7 @@ const Acts = () => {
           return newSet;
         });
         setSavedActs(prev => prev.filter(savedAct => savedAct.actId !== actId));
+        setSavedCount(prev => Math.max(prev - 1, 0));
         setSavingStates(prev => new Map(prev).set(actId, 'removed'));
         
         setTimeout(() => {
@@ -187,26 +319,34 @@ const Acts = () => {
     }
   };
 
-  const filteredActs = acts.filter(act => {
-    const matchesSearch = act.title.toLowerCase().includes(searchTerm.toLowerCase()) || 
-                          (act.summary && act.summary.toLowerCase().includes(searchTerm.toLowerCase())) ||
-                          (act.keyProvisions && act.keyProvisions.toLowerCase().includes(searchTerm.toLowerCase()));
-    const matchesCategory = category === 'all' || 
-                          (act.category && act.category.toLowerCase() === category.toLowerCase());
-    return matchesSearch && matchesCategory;
-  });
-
-  const handleViewDetails = (actId) => {
-    setSelectedActId(actId);
+  // Search and category filtering both run in act-service
+  const filteredActs = searchTerm.trim() && searchHits ? searchHits : acts;
+
+  useEffect(() => {
+    const controller = new AbortController();
+    // The endpoint takes at most 1000 ids per call
+    fetchSavedFlags(filteredActs.slice(0, 1000).map(act => act.id), controller.signal);
+    return () => controller.abort();
+  }, [filteredActs, currentUser]);
+
+  // List items are cards, so the full act is loaded when it is opened
+  const handleViewDetails = async (actId) => {
+    try {
+      const response = await fetch(`http://localhost:8080/api/acts/${actId}`);
+      if (!response.ok) {
+        throw new Error(`Failed to fetch act: ${response.status} ${response.statusText}`);
+      }
+      setSelectedAct(await response.json());
+    } catch (err) {
+      console.error('Error fetching act details:', err);
+      alert('Failed to load act details. Please try again.');
+    }
   };
 
   const handleCloseDetails = () => {
-    setSelectedActId(null);
+    setSelectedAct(null);
   };
 
-  const selectedAct = acts.find(act => act.id === selectedActId) || 
-                     savedActs.find(savedAct => savedAct.actId === selectedActId);
-
   const getSaveButtonContent = (actId) => {
     const savingState = savingStates.get(actId);
     const isSaved = savedActIds.has(actId);
@@ -349,7 +489,7 @@ const Acts = () => {
                   <span className="font-medium">{currentUser.firstName}</span>
                 </div>
                 <p className="text-xs text-slate-500">
-                  <span className="font-medium">{savedActs.length}</span> saved acts
+                  <span className="font-medium">{savedCount}</span> saved acts
                 </p>
               </div>
             )}
@@ -394,7 +534,7 @@ const Acts = () => {
                     ? 'bg-slate-600 text-white' 
                     : 'bg-slate-200 text-slate-700'
                 }`}>
-                  {savedActs.length}
+                  {savedCount}
                 </span>
               </div>
             </button>
@@ -543,13 +683,25 @@ const Acts = () => {
                 );
               })}
             </div>
+            
+            {!searchTerm.trim() && nextCursor !== null && (
+              <div className="flex justify-center mt-8">
+                <button
+                  onClick={fetchMoreActs}
+                  disabled={loadingMore}
+                  className="inline-flex items-center px-6 py-2 border border-slate-600 text-sm font-medium rounded-lg text-slate-600 bg-white hover:bg-slate-50 focus:outline-none focus:ring-2 focus:ring-offset-2 focus:ring-slate-500 disabled:opacity-50 disabled:cursor-not-allowed transition-all duration-200"
+                >
+                  {loadingMore ? 'Loading...' : 'Load more acts'}
+                </button>
+              </div>
+            )}
           </>
         ) : (
           <>
             <div className="flex items-center justify-between mb-6">
               <div className="text-slate-700">
                 <span className="text-sm">Your saved legal acts </span>
-                <span className="font-semibold text-lg text-slate-800">({savedActs.length})</span>
+                <span className="font-semibold text-lg text-slate-800">({savedCount})</span>
               </div>
             </div>
             
@@ -604,10 +756,6 @@ const Acts = () => {
                         </div>
                       </div>
                       
-                      <p className="text-slate-600 text-sm leading-relaxed mb-4 line-clamp-2">
-                        {savedAct.summary ? (savedAct.summary.length > 150 ? savedAct.summary.substring(0, 150) + '...' : savedAct.summary) : 'No summary available'}
-                      </p>
-                      
                       <div className="flex items-center space-x-3 pt-4 border-t border-slate-100">
                         <button
                           onClick={() => handleViewDetails(savedAct.actId)}
@@ -635,6 +783,18 @@ const Acts = () => {
                 ))}
               </div>
             )}
+
+            {currentUser && savedCursor !== null && (
+              <div className="flex justify-center mt-8">
+                <button
+                  onClick={fetchMoreSavedActs}
+                  disabled={loadingMoreSaved}
+                  className="inline-flex items-center px-6 py-2 border border-slate-600 text-sm font-medium rounded-lg text-slate-600 bg-white hover:bg-slate-50 focus:outline-none focus:ring-2 focus:ring-offset-2 focus:ring-slate-500 disabled:opacity-50 disabled:cursor-not-allowed transition-all duration-200"
+                >
+                  {loadingMoreSaved ? 'Loading...' : 'Load more saved acts'}
+                </button>
+              </div>
+            )}
           </>
         )}
       </div>